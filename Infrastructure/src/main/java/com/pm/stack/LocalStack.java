@@ -76,7 +76,7 @@ public class LocalStack extends Stack {
                "analytics-service",
                List.of(4002),
                null,
-               null);
+               Map.of("PATIENT_SERVICE_URL","http://host.docker.internal:4000"));
         analyticsService.getNode().addDependency(mskCluster); // Wait for Kafka
 
         // Patient Service: Main service managing patient records
@@ -237,9 +237,8 @@ public class LocalStack extends Stack {
             envVars.put("SPRING_DATASOURCE_USERNAME","admin_user");
             envVars.put("SPRING_DATASOURCE_PASSWORD", db.getSecret().secretValueFromJson("password").toString());
 
-            // JPA/Hibernate configuration
-            envVars.put("SPRING_JPA_HIBERNATE_DDL_AUTO","update");
-            envVars.put("SPRING_SQL_INIT_MODE","always");
+            // Flyway owns the schema and seed data (db/migration), Hibernate must not change either
+            envVars.put("SPRING_JPA_HIBERNATE_DDL_AUTO","none");
             envVars.put("SPRING_DATASOURCE_HIKARI_INITIALIZATION_FAIL_TIMEOUT","60000");
         }
 
@@ -268,7 +267,11 @@ public class LocalStack extends Stack {
         ContainerDefinitionOptions containerDefinitionOptions = ContainerDefinitionOptions.builder()
                 .image(ContainerImage.fromRegistry("api-gateway"))
                 .environment(Map.of("STRING_PROFILE_ACTIVE","prod",
-                        "AUTH_SERVICE_URL","http://host.docker.internat:4005"))
+                        "AUTH_SERVICE_URL","http://host.docker.internat:4005",
+                        "JWT_SECRET","${jwt.secret}",
+                        "AUTH_VALIDATION_MODE","LOCAL",
+                        // the ALB appends the client address to X-Forwarded-For, see RateLimitGatewayFilterFactory
+                        "GATEWAY_TRUSTED_PROXIES","1"))
                 .portMappings(Stream.of(4004)
                         .map(
                                 port -> PortMapping.builder()
@@ -0,0 +1,32 @@
+package io.xcodebn.analyticsservice.controller;
+
+import io.xcodebn.analyticsservice.dto.PatientStatsDTO;
+import io.xcodebn.analyticsservice.service.PatientAnalytics;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final PatientAnalytics patientAnalytics;
+
+    public AnalyticsController(PatientAnalytics patientAnalytics) {
+        this.patientAnalytics = patientAnalytics;
+    }
+
+    // served from memory, registrationsPerDay can be narrowed with an inclusive from/to range
+    @GetMapping("/patients")
+    public ResponseEntity<PatientStatsDTO> getPatientStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(patientAnalytics.getStats(from, to));
+    }
+}
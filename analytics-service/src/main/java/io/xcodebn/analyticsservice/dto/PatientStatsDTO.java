@@ -0,0 +1,19 @@
+package io.xcodebn.analyticsservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PatientStatsDTO {
+
+    private long activePatients;
+    // ISO date -> active patients registered that day
+    private Map<String, Long> registrationsPerDay;
+    // e.g. "18-29" -> active patients currently in that age range
+    private Map<String, Long> ageBuckets;
+}
@@ -2,28 +2,112 @@ package io.xcodebn.analyticsservice.kafka;
 
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.xcodebn.analyticsservice.service.PatientAnalytics;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 import patients.events.PatientEvent;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Batch listener for the patient topic. Each poll is handed over as one list, parsed and applied
+ * without per-record logging, and its offsets are committed once after the whole batch (ack-mode batch).
+ * Container concurrency should match the patient topic's partition count, every consumer thread then owns
+ * one partition and per-patient ordering is kept because events are keyed by patient id.
+ */
 @Slf4j
 @Service
-public class KafkaConsumer {
-
-    @KafkaListener(topics = "patient",groupId = "analytics-service")
-    public void consumeEvent(byte[] event)  {
-        try {
-            PatientEvent patientEvent = PatientEvent.parseFrom(event);
-            // todo add analytics business logic
-            log.info("Successfully received and parsed event {}", patientEvent);
-            log.info("Received patient event {PatientId = {}, PatientName={}, PatientEmail = {}", patientEvent.getPatientId(), patientEvent.getName(), patientEvent.getEmail());
-        }
-        catch (InvalidProtocolBufferException e) {
-            log.error("Error deserializing Unable to parse event from bytes {}", e.getMessage());
-        }
-        catch (Exception e){
-            log.error("Error deserializing event from bytes {}", e.getMessage());
+public class KafkaConsumer implements ConsumerSeekAware {
+
+    public static final String TOPIC = "patient";
+    public static final String LISTENER_ID = "patient-events";
+
+    private final PatientAnalytics patientAnalytics;
+    private final Counter consumed;
+    private final Counter unreadable;
+    private final Counter failed;
+    private final DistributionSummary batchSize;
+
+    // aggregates live in memory, so each partition is positioned once per process: where the snapshot
+    // left off, or at the beginning when there is no snapshot or the partition is newer than it
+    private final Set<TopicPartition> rebuilt = ConcurrentHashMap.newKeySet();
+    private volatile Map<TopicPartition, Long> startOffsets = Map.of();
+
+    public KafkaConsumer(PatientAnalytics patientAnalytics, MeterRegistry meterRegistry) {
+        this.patientAnalytics = patientAnalytics;
+        // the rate of this counter is the records per second figure, lag comes from kafka.consumer.fetch.manager.records.lag*
+        this.consumed = Counter.builder("analytics.events.consumed")
+                .description("Patient events applied to the aggregates")
+                .register(meterRegistry);
+        this.unreadable = Counter.builder("analytics.events.unreadable")
+                .description("Patient events skipped because they could not be parsed")
+                .register(meterRegistry);
+        this.failed = Counter.builder("analytics.events.failed")
+                .description("Patient events skipped because applying them threw")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("analytics.events.batch.size")
+                .description("Records per listener batch")
+                .register(meterRegistry);
+    }
+
+    // set by PatientSnapshotLoader before it starts the listener
+    public void startFrom(Map<TopicPartition, Long> startOffsets) {
+        this.startOffsets = Map.copyOf(startOffsets);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments.keySet().stream()
+                .filter(rebuilt::add)
+                .forEach(partition -> {
+                    Long offset = startOffsets.get(partition);
+                    if (offset == null) {
+                        callback.seekToBeginning(partition.topic(), partition.partition());
+                    } else {
+                        callback.seek(partition.topic(), partition.partition(), offset);
+                    }
+                });
+    }
+
+    @KafkaListener(
+            id = LISTENER_ID,
+            topics = TOPIC,
+            groupId = "analytics-service",
+            // started by PatientSnapshotLoader once the aggregates hold the snapshot
+            autoStartup = "false",
+            batch = "true",
+            concurrency = "${analytics.consumer.concurrency:3}"
+    )
+    public void consumeEvents(List<ConsumerRecord<String, byte[]>> records) {
+        int applied = 0;
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                patientAnalytics.apply(PatientEvent.parseFrom(record.value()));
+                applied++;
+            } catch (InvalidProtocolBufferException e) {
+                // a poison record must not hold the partition back, skip it and keep going
+                unreadable.increment();
+                log.error("Unable to parse patient event at {}-{}@{}: {}",
+                        record.topic(), record.partition(), record.offset(), e.getMessage());
+            } catch (RuntimeException e) {
+                // same for anything else: thrown out of the listener it would fail and redeliver the whole batch
+                failed.increment();
+                log.error("Unable to apply patient event at {}-{}@{}",
+                        record.topic(), record.partition(), record.offset(), e);
+            }
         }
+        consumed.increment(applied);
+        batchSize.record(records.size());
+        log.debug("Applied {} of {} patient events", applied, records.size());
     }
 }
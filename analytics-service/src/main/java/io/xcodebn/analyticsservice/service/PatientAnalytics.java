@@ -0,0 +1,140 @@
+package io.xcodebn.analyticsservice.service;
+
+import io.xcodebn.analyticsservice.dto.PatientStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import patients.events.PatientEvent;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incremental patient aggregates over the current patients, seeded from patient-service's snapshot
+ * (see PatientSnapshotLoader) and kept up to date from the patient topic, each event is applied in O(1).
+ * Ages are bucketed at query time from a birth date histogram, so nobody has to be moved between
+ * buckets on their birthday. Events are idempotent per patient id, so a replayed CREATED is an
+ * upsert and a DELETED for an unknown patient is ignored. An update or delete takes the patient's
+ * previous dates out of both histograms, so a changed registration date moves to its new day.
+ */
+@Slf4j
+@Service
+public class PatientAnalytics {
+
+    // lower bounds of the age buckets, the last one is open ended
+    private static final int[] AGE_BUCKETS = {0, 18, 30, 45, 65};
+
+    private final Map<String, Snapshot> patients = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> registrationsPerDay = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> birthDates = new ConcurrentHashMap<>();
+
+    public void apply(PatientEvent event) {
+        switch (event.getEventType()) {
+            case "PATIENT_CREATED", "PATIENT_UPDATED", "PATIENT_SNAPSHOT" -> upsert(event);
+            case "PATIENT_DELETED" -> delete(event.getPatientId());
+            default -> log.debug("Ignoring patient event type {}", event.getEventType());
+        }
+    }
+
+    private void upsert(PatientEvent event) {
+        Snapshot current = new Snapshot(parseDate(event.getDateOfBirth()), parseDate(event.getRegisteredDate()));
+        // compute keeps events for the same patient atomic, the other maps only use thread safe counters
+        patients.compute(event.getPatientId(), (id, previous) -> {
+            if (previous != null) {
+                remove(previous);
+            }
+            increment(registrationsPerDay, current.registeredDate());
+            increment(birthDates, current.dateOfBirth());
+            return current;
+        });
+    }
+
+    private void delete(String patientId) {
+        patients.computeIfPresent(patientId, (id, previous) -> {
+            remove(previous);
+            return null;
+        });
+    }
+
+    private void remove(Snapshot previous) {
+        decrement(registrationsPerDay, previous.registeredDate());
+        decrement(birthDates, previous.dateOfBirth());
+    }
+
+    // before a snapshot is read again
+    public void clear() {
+        patients.clear();
+        registrationsPerDay.clear();
+        birthDates.clear();
+    }
+
+    public PatientStatsDTO getStats(LocalDate from, LocalDate to) {
+        Map<String, Long> registrations = new TreeMap<>();
+        registrationsPerDay.forEach((day, count) -> {
+            long sum = count.sum();
+            // days whose patients all moved away or were deleted stay in the map at zero
+            if (sum > 0 && (from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to))) {
+                registrations.put(day.toString(), sum);
+            }
+        });
+
+        long[] ageCounts = new long[AGE_BUCKETS.length];
+        LocalDate today = LocalDate.now();
+        birthDates.forEach((dateOfBirth, count) ->
+                ageCounts[bucketOf(Period.between(dateOfBirth, today).getYears())] += count.sum());
+
+        Map<String, Long> ageBuckets = new LinkedHashMap<>();
+        for (int i = 0; i < AGE_BUCKETS.length; i++) {
+            ageBuckets.put(bucketLabel(i), ageCounts[i]);
+        }
+
+        return new PatientStatsDTO(patients.size(), registrations, ageBuckets);
+    }
+
+    private static int bucketOf(int age) {
+        int bucket = 0;
+        while (bucket + 1 < AGE_BUCKETS.length && age >= AGE_BUCKETS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static String bucketLabel(int bucket) {
+        return bucket + 1 < AGE_BUCKETS.length
+                ? AGE_BUCKETS[bucket] + "-" + (AGE_BUCKETS[bucket + 1] - 1)
+                : AGE_BUCKETS[bucket] + "+";
+    }
+
+    private static void increment(Map<LocalDate, LongAdder> counts, LocalDate key) {
+        if (key != null) {
+            counts.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    private static void decrement(Map<LocalDate, LongAdder> counts, LocalDate key) {
+        if (key != null) {
+            counts.computeIfAbsent(key, k -> new LongAdder()).decrement();
+        }
+    }
+
+    // events published before the dates were added to PatientEvent carry empty strings
+    private static LocalDate parseDate(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring unparseable date {} in patient event", value);
+            return null;
+        }
+    }
+
+    private record Snapshot(LocalDate dateOfBirth, LocalDate registeredDate) {
+    }
+}
@@ -0,0 +1,134 @@
+package io.xcodebn.analyticsservice.service;
+
+import io.xcodebn.analyticsservice.kafka.KafkaConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import patients.events.PatientEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Fills the aggregates from patient-service's snapshot before the listener starts, so they cover every patient
+ * and not only those whose events are still within the topic's retention. The topic's end offsets are read
+ * first and the listener starts from them: events published while the snapshot was read are applied on top of it,
+ * and since every event carries the patient's whole state each patient still ends up at its latest one.
+ * If no snapshot could be read within analytics.bootstrap.timeout the listener replays the topic from the beginning.
+ */
+@Slf4j
+@Component
+public class PatientSnapshotLoader implements ApplicationRunner {
+
+    private final PatientAnalytics patientAnalytics;
+    private final KafkaConsumer kafkaConsumer;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final RestClient restClient;
+    private final boolean enabled;
+    private final Duration timeout;
+    private final Duration retryInterval;
+
+    public PatientSnapshotLoader(
+            PatientAnalytics patientAnalytics,
+            KafkaConsumer kafkaConsumer,
+            KafkaListenerEndpointRegistry listenerRegistry,
+            ConsumerFactory<?, ?> consumerFactory,
+            RestClient.Builder restClientBuilder,
+            @Value("${analytics.bootstrap.enabled:true}") boolean enabled,
+            @Value("${analytics.bootstrap.patient-service-url:http://patient-service:4000}") String patientServiceUrl,
+            @Value("${analytics.bootstrap.request-timeout:PT10S}") Duration requestTimeout,
+            @Value("${analytics.bootstrap.timeout:PT2M}") Duration timeout,
+            @Value("${analytics.bootstrap.retry-interval:PT5S}") Duration retryInterval
+    ) {
+        this.patientAnalytics = patientAnalytics;
+        this.kafkaConsumer = kafkaConsumer;
+        this.listenerRegistry = listenerRegistry;
+        this.consumerFactory = consumerFactory;
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(requestTimeout).build());
+        requestFactory.setReadTimeout(requestTimeout);
+        this.restClient = restClientBuilder.baseUrl(patientServiceUrl).requestFactory(requestFactory).build();
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.retryInterval = retryInterval;
+    }
+
+    // on its own thread: patient-service may still be starting, this service is up and serves empty stats meanwhile
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread loader = new Thread(() -> {
+            kafkaConsumer.startFrom(enabled ? loadSnapshot() : Map.of());
+            listenerRegistry.getListenerContainer(KafkaConsumer.LISTENER_ID).start();
+        }, "patient-snapshot");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private Map<TopicPartition, Long> loadSnapshot() {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            try {
+                Map<TopicPartition, Long> endOffsets = endOffsets();
+                long patients = readSnapshot();
+                log.info("Loaded {} patients from the patient-service snapshot, following the topic from {}", patients, endOffsets);
+                return endOffsets;
+            } catch (RuntimeException e) {
+                // a snapshot cut off halfway must not stay under the replay
+                patientAnalytics.clear();
+                if (System.nanoTime() + retryInterval.toNanos() > deadline) {
+                    log.warn("No patient snapshot within {}, replaying the patient topic from the beginning: {}", timeout, e.getMessage());
+                    return Map.of();
+                }
+                log.info("Patient snapshot not available yet, retrying in {}: {}", retryInterval, e.getMessage());
+            }
+            try {
+                Thread.sleep(retryInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Map.of();
+            }
+        }
+    }
+
+    private Map<TopicPartition, Long> endOffsets() {
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer()) {
+            return consumer.endOffsets(consumer.partitionsFor(KafkaConsumer.TOPIC).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList());
+        }
+    }
+
+    // length-delimited PatientEvent messages, applied as they are read
+    private long readSnapshot() {
+        return restClient.get()
+                .uri("/patients/snapshot")
+                .exchange((request, response) -> {
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        throw new IllegalStateException("GET /patients/snapshot returned " + response.getStatusCode());
+                    }
+                    long count = 0;
+                    try (InputStream body = response.getBody()) {
+                        PatientEvent event;
+                        while ((event = PatientEvent.parseDelimitedFrom(body)) != null) {
+                            patientAnalytics.apply(event);
+                            count++;
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Patient snapshot cut off after " + count + " patients", e);
+                    }
+                    return count;
+                });
+    }
+}
@@ -0,0 +1,83 @@
+package io.xcodebn.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * GET responses kept by the ResponseCache route filter. Bounded by total body bytes rather than entry
+ * count, so a few large list pages can't crowd out memory; entries expire after the ttl and are dropped
+ * early when a write goes through the same route.
+ */
+@Component
+public class ResponseCache {
+
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final Cache<String, CachedResponse> cache;
+
+    public ResponseCache(
+            @Value("${gateway.response-cache.enabled:true}") boolean enabled,
+            @Value("${gateway.response-cache.ttl:PT5S}") Duration ttl,
+            @Value("${gateway.response-cache.max-memory:64MB}") DataSize maxMemory,
+            @Value("${gateway.response-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher((String key, CachedResponse response) -> response.body().length + key.length())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // exposes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean fits(long bytes) {
+        return bytes <= maxEntryBytes;
+    }
+
+    public CachedResponse get(String key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    public void put(String key, CachedResponse response) {
+        if (enabled && fits(response.body().length)) {
+            cache.put(key, response);
+        }
+    }
+
+    public void invalidatePrefix(String prefix) {
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    // strong validator over the exact bytes sent, so equal bodies get equal tags on every gateway instance
+    public static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // headers holds only what describes the body: Content-Type, Content-Encoding and Vary
+    public record CachedResponse(byte[] body, String etag, HttpHeaders headers) {
+    }
+}
@@ -0,0 +1,91 @@
+package io.xcodebn.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Remembers tokens that already passed validation so repeat requests skip the signature check
+ * (or the auth-service hop in REMOTE mode).
+ * Keys are SHA-256 hashes so raw tokens never sit in memory; an entry lives until the token's
+ * exp claim or the configured ttl, whichever comes first, and the size bound evicts cold tokens.
+ */
+@Component
+public class ValidatedTokenCache {
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<String, Instant> cache;
+
+    public ValidatedTokenCache(
+            @Value("${gateway.token-cache.enabled:true}") boolean enabled,
+            @Value("${gateway.token-cache.max-size:10000}") long maxSize,
+            @Value("${gateway.token-cache.ttl:PT10M}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        // exposes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.validated-tokens");
+    }
+
+    public boolean contains(String token) {
+        if (!enabled) {
+            return false;
+        }
+        Instant expiresAt = cache.getIfPresent(hash(token));
+        // exp has one second resolution, so double check instead of trusting the timer wheel
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    public void put(String token, Instant expiresAt) {
+        if (!enabled || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        cache.put(hash(token), expiresAt);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private class TokenExpiry implements Expiry<String, Instant> {
+
+        @Override
+        public long expireAfterCreate(String key, Instant expiresAt, long currentTime) {
+            Duration untilExp = Duration.between(Instant.now(), expiresAt);
+            return Math.max(0, (untilExp.compareTo(ttl) < 0 ? untilExp : ttl).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Instant expiresAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, expiresAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Instant expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.xcodebn.apigateway.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+import java.util.List;
+
+/**
+ * Protocols the gateway speaks to the routed services. With H2C a pooled connection carries many
+ * concurrent requests as HTTP/2 streams instead of one request at a time. H2C alone is prior knowledge
+ * and needs the backend to speak HTTP/2; H2C,HTTP11 negotiates through an Upgrade instead.
+ * Pool sizes and timeouts are the spring.cloud.gateway.server.webflux.httpclient properties.
+ */
+@Slf4j
+@Configuration
+public class BackendHttpClientConfig {
+
+    @Bean
+    public HttpClientCustomizer backendProtocols(
+            @Value("${gateway.backend.protocols:H2C}") List<HttpProtocol> protocols
+    ) {
+        if (protocols.isEmpty()) {
+            throw new IllegalStateException("gateway.backend.protocols must name at least one protocol");
+        }
+        log.info("Backend protocols are {}", protocols);
+        return httpClient -> httpClient.protocol(protocols.toArray(HttpProtocol[]::new));
+    }
+}
@@ -1,32 +1,70 @@
 package io.xcodebn.apigateway.filter;
 
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.xcodebn.apigateway.cache.ValidatedTokenCache;
+import io.xcodebn.apigateway.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+
+@Slf4j
 @Component
 public class JwtValidationGatewayFilterFactory
         extends AbstractGatewayFilterFactory<Object> {
 
+    private static final String VALIDATION_TIMER = "gateway.jwt.validation";
+    private static final String AUTH_EXPIRES_HEADER = "X-Auth-Expires";
+
+    static final int ORDER = ResponseCacheGatewayFilterFactory.ORDER - 1;
+
     private final WebClient webClient;
+    private final JwtUtil jwtUtil;
+    private final JwtValidationMode mode;
+    private final MeterRegistry meterRegistry;
+    private final ValidatedTokenCache tokenCache;
 
     public JwtValidationGatewayFilterFactory(
             WebClient.Builder webClientBuilder
             , @Value("${auth.service.url}") String authServiceUrl
+            , @Value("${auth.validation.mode:REMOTE}") JwtValidationMode mode
+            , JwtUtil jwtUtil
+            , MeterRegistry meterRegistry
+            , ValidatedTokenCache tokenCache
     )
     {
+        if (mode == JwtValidationMode.LOCAL && !jwtUtil.isConfigured()) {
+            throw new IllegalStateException("jwt.secret must be set when auth.validation.mode is LOCAL");
+        }
         this.webClient = webClientBuilder.baseUrl(authServiceUrl).build();
+        this.jwtUtil = jwtUtil;
+        this.mode = mode;
+        this.meterRegistry = meterRegistry;
+        this.tokenCache = tokenCache;
+        log.info("JWT validation mode is {}", mode);
     }
 
     @Override
     public GatewayFilter apply(Object config) {
 
-        return (exchange,chain)->{
+        // ordered ahead of ResponseCache so a cached response is never served to an unauthenticated caller
+        return new OrderedGatewayFilter((exchange,chain)->{
             // getting the auth header and then getting the token from it
             String token = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
             if(token == null || !token.startsWith("Bearer ")) {
@@ -34,12 +72,67 @@ public class JwtValidationGatewayFilterFactory
                 return exchange.getResponse().setComplete();
             }
 
-            return webClient.get()
-                    .uri("/validate")
-                    .header(HttpHeaders.AUTHORIZATION, token)
-                    .retrieve()
-                    .toBodilessEntity()
-                    .then(chain.filter(exchange));
-        };
+            // already validated and not yet expired: skip both the signature check and the auth hop
+            if (tokenCache.contains(token.substring(7))) {
+                return chain.filter(exchange);
+            }
+
+            return mode == JwtValidationMode.LOCAL
+                    ? validateLocally(exchange, chain, token)
+                    : validateRemotely(exchange, chain, token);
+        }, ORDER);
+    }
+
+    private Mono<Void> validateLocally(ServerWebExchange exchange, GatewayFilterChain chain, String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Claims claims;
+        try {
+            claims = jwtUtil.validateToken(token.substring(7));
+            sample.stop(validationTimer(JwtValidationMode.LOCAL, "valid"));
+        } catch (JwtException e) {
+            sample.stop(validationTimer(JwtValidationMode.LOCAL, "invalid"));
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+        if (claims.getExpiration() != null) {
+            tokenCache.put(token.substring(7), claims.getExpiration().toInstant());
+        }
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> validateRemotely(ServerWebExchange exchange, GatewayFilterChain chain, String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return webClient.get()
+                .uri("/validate")
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .retrieve()
+                .toBodilessEntity()
+                .doOnSuccess(response -> {
+                    sample.stop(validationTimer(JwtValidationMode.REMOTE, "valid"));
+                    // auth-service returns the parsed exp, older versions only the status
+                    expiresHeader(response.getHeaders())
+                            .or(() -> jwtUtil.readExpiration(token.substring(7)))
+                            .ifPresent(exp -> tokenCache.put(token.substring(7), exp));
+                })
+                .doOnError(e -> sample.stop(validationTimer(JwtValidationMode.REMOTE, "invalid")))
+                .then(chain.filter(exchange));
+    }
+
+    private static Optional<Instant> expiresHeader(HttpHeaders headers) {
+        String expires = headers.getFirst(AUTH_EXPIRES_HEADER);
+        try {
+            return expires == null ? Optional.empty() : Optional.of(Instant.ofEpochSecond(Long.parseLong(expires)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    // one timer per mode/outcome so local and remote counts and latencies can be compared side by side
+    private Timer validationTimer(JwtValidationMode mode, String outcome) {
+        return Timer.builder(VALIDATION_TIMER)
+                .description("Time spent validating bearer tokens")
+                .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,8 @@
+package io.xcodebn.apigateway.filter;
+
+public enum JwtValidationMode {
+    // verify the HS256 signature in the gateway with the shared secret
+    LOCAL,
+    // call auth-service /validate for every request (fallback)
+    REMOTE
+}
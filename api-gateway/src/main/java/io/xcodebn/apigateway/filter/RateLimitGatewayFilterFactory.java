@@ -0,0 +1,137 @@
+package io.xcodebn.apigateway.filter;
+
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.xcodebn.apigateway.cache.ValidatedTokenCache;
+import io.xcodebn.apigateway.ratelimit.TokenBucketStore;
+import io.xcodebn.apigateway.util.JwtUtil;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token bucket on a route, answered with 429 and Retry-After once the burst is used up.
+ * Clients are told apart by token subject when the token was already validated, by client address
+ * otherwise. Buckets live in this gateway instance only, so each replica enforces its own limit.
+ */
+@Component
+public class RateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RateLimitGatewayFilterFactory.Config> {
+
+    // ahead of JwtValidation, so a flood of requests never turns into a flood of /validate calls
+    static final int ORDER = JwtValidationGatewayFilterFactory.ORDER - 1;
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final boolean enabled;
+    private final int trustedProxies;
+    private final TokenBucketStore buckets;
+    private final ValidatedTokenCache tokenCache;
+    private final JwtUtil jwtUtil;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitGatewayFilterFactory(
+            @Value("${gateway.rate-limit.enabled:true}") boolean enabled,
+            @Value("${gateway.rate-limit.trusted-proxies:0}") int trustedProxies,
+            TokenBucketStore buckets,
+            ValidatedTokenCache tokenCache,
+            JwtUtil jwtUtil,
+            MeterRegistry meterRegistry
+    ) {
+        super(Config.class);
+        this.enabled = enabled;
+        this.trustedProxies = trustedProxies;
+        this.buckets = buckets;
+        this.tokenCache = tokenCache;
+        this.jwtUtil = jwtUtil;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("replenishRate", "burstCapacity");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (config.getReplenishRate() <= 0 || config.getBurstCapacity() < 1) {
+            throw new IllegalArgumentException("RateLimit needs replenish-rate > 0 and burst-capacity >= 1");
+        }
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!enabled) {
+                return chain.filter(exchange);
+            }
+            String routeId = routeId(exchange);
+            long wait = buckets.tryAcquire(routeId + " " + clientKey(exchange.getRequest()),
+                    config.getReplenishRate(), config.getBurstCapacity());
+            if (wait == 0) {
+                return chain.filter(exchange);
+            }
+            meterRegistry.counter("gateway.rate-limit.rejected", "route", routeId).increment();
+            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            // whole seconds, rounded up so a client that honours it is let through
+            long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            return exchange.getResponse().setComplete();
+        }, ORDER);
+    }
+
+    // an unvalidated token's subject is attacker controlled, so only trust it once it has been checked
+    private String clientKey(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            String token = header.substring(7);
+            if (tokenCache.contains(token)) {
+                var subject = jwtUtil.readSubject(token);
+                if (subject.isPresent()) {
+                    return "sub:" + subject.get();
+                }
+            }
+        }
+        return "ip:" + clientAddress(request);
+    }
+
+    // Each trusted proxy appends the address it saw to X-Forwarded-For, so with n of them in front the client is
+    // the n-th entry from the right. Entries further left are whatever the client sent and would pick its bucket.
+    private String clientAddress(ServerHttpRequest request) {
+        if (trustedProxies > 0) {
+            List<String> forwardedFor = request.getHeaders().getOrEmpty(X_FORWARDED_FOR).stream()
+                    .flatMap(value -> Arrays.stream(value.split(",")))
+                    .map(String::trim)
+                    .filter(entry -> !entry.isEmpty())
+                    .toList();
+            if (forwardedFor.size() >= trustedProxies) {
+                return forwardedFor.get(forwardedFor.size() - trustedProxies);
+            }
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "unknown";
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "";
+    }
+
+    @Data
+    public static class Config {
+        // tokens added per second, the sustained request rate
+        private long replenishRate;
+        // bucket size, how many requests may arrive at once after a quiet period
+        private long burstCapacity;
+    }
+}
@@ -0,0 +1,196 @@
+package io.xcodebn.apigateway.filter;
+
+
+import io.xcodebn.apigateway.cache.ResponseCache;
+import io.xcodebn.apigateway.cache.ResponseCache.CachedResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches GET responses of a route in the gateway and tags them with an ETag over the body, so polling
+ * clients that send If-None-Match get a bodiless 304. A hit costs no downstream call; a miss with a
+ * matching If-None-Match still saves the payload bytes. A successful write on the route drops its entries.
+ * Only for routes whose responses are the same for every authenticated caller.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<Object> {
+
+    // must wrap the response before NettyWriteResponseFilter writes it, JwtValidation runs before this
+    static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final List<MediaType> STREAMING_TYPES = List.of(
+            MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+
+    // HEAD, OPTIONS and the like change nothing, so they leave the route's entries alone
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(
+            HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    private static final List<String> REPRESENTATION_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING, HttpHeaders.VARY);
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!responseCache.isEnabled()) {
+                return chain.filter(exchange);
+            }
+            ServerHttpRequest request = exchange.getRequest();
+            String routePrefix = routeId(exchange) + " ";
+
+            if (WRITE_METHODS.contains(request.getMethod())) {
+                return chain.filter(exchange).doOnSuccess(done -> {
+                    var status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        responseCache.invalidatePrefix(routePrefix);
+                    }
+                });
+            }
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            // Accept and Accept-Encoding are part of the key, the same URI can be served in more than one
+            // representation and a gzip body must never be replayed to a client that did not ask for it
+            String key = routePrefix + request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+                    + " " + request.getHeaders().getAccept()
+                    + " " + request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING);
+            boolean bypass = request.getHeaders().getCacheControl() != null
+                    && request.getHeaders().getCacheControl().contains("no-cache");
+
+            CachedResponse cached = bypass ? null : responseCache.get(key);
+            if (cached != null) {
+                return writeCached(exchange, cached);
+            }
+            return chain.filter(exchange.mutate().response(new CapturingResponse(exchange, key)).build());
+        }, ORDER);
+    }
+
+    private static Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setETag(cached.etag());
+        if (matches(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().addAll(cached.headers());
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean matches(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        return ifNoneMatch.contains(etag) || ifNoneMatch.contains("*");
+    }
+
+    private static HttpHeaders representationHeaders(HttpHeaders headers) {
+        HttpHeaders kept = new HttpHeaders();
+        for (String name : REPRESENTATION_HEADERS) {
+            List<String> values = headers.get(name);
+            if (values != null) {
+                kept.addAll(name, values);
+            }
+        }
+        return HttpHeaders.readOnlyHttpHeaders(kept);
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "";
+    }
+
+    /**
+     * Buffers a successful downstream body to hash and cache it. Streaming and no-store responses are
+     * passed through untouched, and so is a chunked body once it grows past the max entry size.
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+
+        CapturingResponse(ServerWebExchange exchange, String key) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable()) {
+                return super.writeWith(body);
+            }
+            // the first chunk list is the whole body, unless it was cut off where the total passed the cap
+            AtomicLong total = new AtomicLong();
+            return Flux.from(body)
+                    .bufferUntil(buffer -> !responseCache.fits(total.addAndGet(buffer.readableByteCount())))
+                    .switchOnFirst((first, chunks) -> {
+                        if (first.hasValue() && responseCache.fits(total.get())) {
+                            return DataBufferUtils.join(Flux.fromIterable(first.get())).flatMap(this::cacheAndWrite);
+                        }
+                        return getDelegate().writeWith(chunks.concatMapIterable(buffers -> buffers));
+                    })
+                    .then();
+        }
+
+        private Mono<Void> cacheAndWrite(DataBuffer joined) {
+            byte[] bytes = new byte[joined.readableByteCount()];
+            joined.read(bytes);
+            DataBufferUtils.release(joined);
+
+            String etag = ResponseCache.etag(bytes);
+            responseCache.put(key, new CachedResponse(bytes, etag, representationHeaders(getHeaders())));
+            getHeaders().setETag(etag);
+            if (matches(exchange.getRequest(), etag)) {
+                getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                return getDelegate().setComplete();
+            }
+            return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        private boolean isCacheable() {
+            HttpHeaders headers = getHeaders();
+            if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()) {
+                return false;
+            }
+            MediaType contentType = headers.getContentType();
+            if (contentType != null && STREAMING_TYPES.stream().anyMatch(contentType::isCompatibleWith)) {
+                return false;
+            }
+            String cacheControl = headers.getCacheControl();
+            if (cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("private"))) {
+                return false;
+            }
+            return headers.getContentLength() < 0 || responseCache.fits(headers.getContentLength());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.xcodebn.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process token buckets for the RateLimit route filter, one per route and client.
+ * Each bucket is held as the time it will be full again (GCRA form of a token bucket), so taking a
+ * token is a single compare-and-set on one long and nothing is locked on the request path.
+ * Buckets that have refilled completely carry no state and are swept periodically.
+ */
+@Slf4j
+@Component
+public class TokenBucketStore {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketStore(MeterRegistry meterRegistry) {
+        Gauge.builder("gateway.rate-limit.keys", buckets, ConcurrentHashMap::size)
+                .description("Clients currently holding a partly drained bucket")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one token from the bucket under key.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, long replenishRate, long burstCapacity) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / replenishRate;
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long fullAt = bucket.get();
+            // a bucket full in the past is simply full now
+            long next = (fullAt - now > 0 ? fullAt : now) + interval;
+            long wait = next - burstCapacity * interval - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // a full bucket is the same as no bucket; a request racing the removal at worst gets one extra token
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sweep-interval:PT1M}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        log.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+    }
+}
@@ -0,0 +1,97 @@
+package io.xcodebn.apigateway.util;
+
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Verifies HS256 tokens issued by auth-service without calling it.
+ * The key is decoded exactly like auth-service's JwtUtil so both accept the same tokens.
+ */
+@Component
+public class JwtUtil {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JwtParser parser;
+
+    public JwtUtil(@Value("${jwt.secret:}") String secret) {
+        if (secret.isBlank()) {
+            // only allowed when the gateway runs in REMOTE validation mode
+            this.parser = null;
+            return;
+        }
+        byte[] keyBytes = Base64.getDecoder()
+                .decode(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(keyBytes))
+                .build();
+    }
+
+    public boolean isConfigured() {
+        return parser != null;
+    }
+
+    public Claims validateToken(String token) {
+        if (parser == null) {
+            throw new JwtException("No JWT secret configured");
+        }
+        try {
+            return parser.parseSignedClaims(token).getPayload();
+        } catch (SignatureException e) {
+            throw new JwtException("Invalid JWT signature");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new JwtException("Invalid JWT");
+        }
+    }
+
+    /**
+     * Reads the exp claim without checking the signature.
+     * Only use this on tokens that auth-service has already accepted.
+     */
+    public Optional<Instant> readExpiration(String token) {
+        return readPayload(token)
+                .map(payload -> payload.get("exp"))
+                .filter(JsonNode::canConvertToLong)
+                .map(exp -> Instant.ofEpochSecond(exp.asLong()));
+    }
+
+    /**
+     * Reads the sub claim without checking the signature.
+     * Only use this on tokens that have already been validated.
+     */
+    public Optional<String> readSubject(String token) {
+        return readPayload(token)
+                .map(payload -> payload.get("sub"))
+                .filter(JsonNode::isTextual)
+                .map(JsonNode::asText);
+    }
+
+    private static Optional<JsonNode> readPayload(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (firstDot < 0 || secondDot < 0) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(firstDot + 1, secondDot));
+            return Optional.ofNullable(MAPPER.readTree(payload));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.xcodebn.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenBucketStore store = new TokenBucketStore(meterRegistry);
+
+    @Test
+    void shouldAllowBurstThenReject() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(store.tryAcquire("route:client", 1, 5)).isZero();
+        }
+
+        long wait = store.tryAcquire("route:client", 1, 5);
+
+        // one token per second, the next one is at most a second away
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void shouldKeepBucketsPerKey() {
+        store.tryAcquire("route:a", 1, 1);
+
+        assertThat(store.tryAcquire("route:a", 1, 1)).isPositive();
+        assertThat(store.tryAcquire("route:b", 1, 1)).isZero();
+    }
+
+    @Test
+    void shouldRefillAtReplenishRate() throws InterruptedException {
+        // 100 per second: a token every 10ms
+        for (int i = 0; i < 2; i++) {
+            assertThat(store.tryAcquire("route:client", 100, 2)).isZero();
+        }
+        assertThat(store.tryAcquire("route:client", 100, 2)).isPositive();
+
+        TimeUnit.MILLISECONDS.sleep(30);
+
+        assertThat(store.tryAcquire("route:client", 100, 2)).isZero();
+    }
+
+    @Test
+    void shouldEvictOnlyFullBuckets() throws InterruptedException {
+        store.tryAcquire("route:busy", 1, 10);
+        store.tryAcquire("route:idle", 1000, 1);
+        TimeUnit.MILLISECONDS.sleep(10);
+
+        store.evictIdle();
+
+        assertThat(meterRegistry.get("gateway.rate-limit.keys").gauge().value()).isEqualTo(1);
+        // the evicted client starts again from a full bucket
+        assertThat(store.tryAcquire("route:idle", 1000, 1)).isZero();
+    }
+}
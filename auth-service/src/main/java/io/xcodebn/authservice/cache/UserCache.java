@@ -0,0 +1,96 @@
+package io.xcodebn.authservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.xcodebn.authservice.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * User records by email, so repeat logins skip the users query. Keyed by the email exactly as given, the way
+ * UserRepository.findByEmail matches it: the unique constraint on users.email is case-sensitive, so two spellings
+ * of an address may belong to two users and must not share an entry.
+ * After a successful BCrypt check the entry also remembers an HMAC of the password, keyed with a
+ * random per-process secret, so the same credentials within the ttl are verified without BCrypt.
+ * The raw password is never stored and the HMAC is useless outside this process.
+ */
+@Component
+public class UserCache {
+
+    private final boolean enabled;
+    private final Cache<String, CachedUser> cache;
+    private final SecretKeySpec hmacKey;
+
+    public UserCache(
+            @Value("${auth.login-cache.enabled:true}") boolean enabled,
+            @Value("${auth.login-cache.max-size:10000}") long maxSize,
+            @Value("${auth.login-cache.ttl:PT5M}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // exposes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.users");
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hmacKey = new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    public Optional<CachedUser> get(String email, Function<String, Optional<User>> loader) {
+        if (!enabled) {
+            return loader.apply(email).map(CachedUser::of);
+        }
+        // unknown emails are not cached, the failed-login throttle deals with those
+        return Optional.ofNullable(cache.get(email, key -> loader.apply(key).map(CachedUser::of).orElse(null)));
+    }
+
+    public boolean isVerified(CachedUser user, String password) {
+        return user.passwordDigest() != null && MessageDigest.isEqual(user.passwordDigest(), digest(password));
+    }
+
+    // the hash is passed in because it may just have been upgraded
+    public void markVerified(CachedUser user, String passwordHash, String password) {
+        if (enabled) {
+            cache.put(user.email(), new CachedUser(user.id(), user.email(), passwordHash, user.role(), digest(password)));
+        }
+    }
+
+    public void invalidate(String email) {
+        cache.invalidate(email);
+    }
+
+    private byte[] digest(String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    public record CachedUser(UUID id, String email, String passwordHash, String role, byte[] passwordDigest) {
+
+        static CachedUser of(User user) {
+            return new CachedUser(user.getId(), user.getEmail(), user.getPassword(), user.getRole(), null);
+        }
+    }
+}
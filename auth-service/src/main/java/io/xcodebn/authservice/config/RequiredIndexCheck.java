@@ -0,0 +1,74 @@
+package io.xcodebn.authservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Refuses to start when the login or refresh token lookups would lose their index, e.g. after a
+ * migration was skipped. Logins would still work, as sequential scans over users under load.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "schema.index-check.enabled", havingValue = "true", matchIfMissing = true)
+public class RequiredIndexCheck implements ApplicationRunner {
+
+    // table -> indexes created by db/migration
+    private static final Map<String, List<String>> REQUIRED_INDEXES = Map.of(
+            "users", List.of("idx_users_email_login"),
+            "refresh_tokens", List.of("idx_refresh_tokens_user_id")
+    );
+
+    private final DataSource dataSource;
+
+    public RequiredIndexCheck(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, List<String>> table : REQUIRED_INDEXES.entrySet()) {
+                Set<String> present = indexNames(metaData, connection.getSchema(), table.getKey());
+                table.getValue().stream()
+                        .filter(index -> !present.contains(index))
+                        .forEach(index -> missing.add(table.getKey() + "." + index));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing database indexes " + missing
+                    + ", run the db/migration scripts or set schema.index-check.enabled=false");
+        }
+        log.info("All {} required indexes present", REQUIRED_INDEXES.values().stream().mapToInt(List::size).sum());
+    }
+
+    private static Set<String> indexNames(DatabaseMetaData metaData, String schema, String table) throws SQLException {
+        String storedTable = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Set<String> names = new HashSet<>();
+        try (ResultSet indexes = metaData.getIndexInfo(null, schema, storedTable, false, true)) {
+            while (indexes.next()) {
+                String name = indexes.getString("INDEX_NAME");
+                if (name != null) {
+                    names.add(name.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return names;
+    }
+}
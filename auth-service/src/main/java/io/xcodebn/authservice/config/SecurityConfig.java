@@ -1,5 +1,6 @@
 package io.xcodebn.authservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,12 +17,15 @@ public class SecurityConfig {
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(authorize -> authorize.anyRequest().permitAll())
-                .csrf(AbstractHttpConfigurer::disable);
+                .csrf(AbstractHttpConfigurer::disable)
+                // /logout revokes refresh tokens in AuthController, not the servlet session
+                .logout(AbstractHttpConfigurer::disable);
         return http.build();
     }
 
+    // raising the strength re-hashes stored passwords on their next successful login, see AuthService
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:12}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
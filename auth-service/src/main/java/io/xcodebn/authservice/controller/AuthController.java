@@ -4,18 +4,28 @@ package io.xcodebn.authservice.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.xcodebn.authservice.dto.LoginRequestDto;
 import io.xcodebn.authservice.dto.LoginResponseDto;
+import io.xcodebn.authservice.dto.RefreshRequestDto;
 import io.xcodebn.authservice.service.AuthService;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
 import java.util.Optional;
 
 @RestController()
 public class AuthController {
 
+    public static final String AUTH_SUBJECT_HEADER = "X-Auth-Subject";
+    public static final String AUTH_ROLE_HEADER = "X-Auth-Role";
+    public static final String AUTH_EXPIRES_HEADER = "X-Auth-Expires";
+
     private final AuthService authService;
 
     public AuthController(AuthService authService) {
@@ -24,13 +34,27 @@ public class AuthController {
 
     @Operation(summary = "Generate token on user login")
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDto> login(@RequestBody LoginRequestDto loginRequestDto) {
-        Optional<String> tokenOptional = authService.authenticate(loginRequestDto);
+    public ResponseEntity<LoginResponseDto> login(@Valid @RequestBody LoginRequestDto loginRequestDto) {
+        Optional<LoginResponseDto> tokenOptional = authService.authenticate(loginRequestDto);
         if (tokenOptional.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        LoginResponseDto loginResponseDto = new LoginResponseDto(tokenOptional.get());
-        return ResponseEntity.ok(loginResponseDto);
+        return ResponseEntity.ok(tokenOptional.get());
+    }
+
+    @Operation(summary = "Exchange a refresh token for a new access and refresh token")
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDto> refresh(@Valid @RequestBody RefreshRequestDto refreshRequestDto) {
+        return authService.refresh(refreshRequestDto.getRefreshToken())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    @Operation(summary = "Revoke a refresh token")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshRequestDto refreshRequestDto) {
+        authService.logout(refreshRequestDto.getRefreshToken());
+        return ResponseEntity.noContent().build();
     }
 
     @Operation(summary = "Validate token")
@@ -41,10 +65,21 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
+        // the claims go back as headers so callers can cache the outcome until exp
         return authService.validateToken(authHeader.substring(7))
-                ?ResponseEntity.ok().build()
-                :ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                .map(claims -> ResponseEntity.ok()
+                        .header(AUTH_SUBJECT_HEADER, claims.getSubject())
+                        .header(AUTH_ROLE_HEADER, claims.get("role", String.class))
+                        .header(AUTH_EXPIRES_HEADER, String.valueOf(claims.getExpiration().toInstant().getEpochSecond()))
+                        .cacheControl(CacheControl.maxAge(untilExpiration(claims.getExpiration())).cachePrivate())
+                        .<Void>build())
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+
+    }
 
+    private static Duration untilExpiration(Date expiration) {
+        Duration remaining = Duration.between(Instant.now(), expiration.toInstant());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
     }
 
 }
@@ -10,4 +10,7 @@ import lombok.Data;
 @Data
 public class LoginResponseDto {
     private final String token;
+    private final String refreshToken;
+    // access token lifetime in seconds
+    private final long expiresIn;
 }
@@ -0,0 +1,17 @@
+package io.xcodebn.authservice.dto;
+
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class RefreshRequestDto {
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
@@ -0,0 +1,17 @@
+package io.xcodebn.authservice.exception;
+
+import java.time.Duration;
+
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyLoginAttemptsException(Duration retryAfter) {
+        super("Too many failed login attempts, retry in " + retryAfter.toSeconds() + "s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
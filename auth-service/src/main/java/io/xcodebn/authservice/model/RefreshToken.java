@@ -0,0 +1,65 @@
+package io.xcodebn.authservice.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A refresh token, stored only as the base64url SHA-256 of the opaque token handed to the client.
+ * Email and role are copied in so a refresh can mint an access token without reading the users table.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_user_id", columnList = "userId"))
+@Data
+@NoArgsConstructor
+public class RefreshToken implements Persistable<String> {
+
+    @Id
+    @Column(length = 43)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private String role;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // hashes are generated here, so save() can insert without a merge select first
+    @Transient
+    private boolean newToken;
+
+    public RefreshToken(String tokenHash, UUID userId, String email, String role, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.expiresAt = expiresAt;
+        this.newToken = true;
+    }
+
+    @Override
+    public String getId() {
+        return tokenHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newToken;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newToken = false;
+    }
+}
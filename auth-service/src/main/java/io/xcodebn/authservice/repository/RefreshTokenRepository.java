@@ -0,0 +1,25 @@
+package io.xcodebn.authservice.repository;
+
+import io.xcodebn.authservice.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    // the row count tells the caller whether it consumed the token or someone else got there first
+    @Modifying
+    @Query("delete from RefreshToken t where t.tokenHash = :tokenHash")
+    int deleteByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.userId = :userId")
+    int deleteAllByUserId(UUID userId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
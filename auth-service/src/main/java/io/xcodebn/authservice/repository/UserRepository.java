@@ -2,6 +2,8 @@ package io.xcodebn.authservice.repository;
 
 import io.xcodebn.authservice.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +12,8 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByEmail(String email);
+
+    @Modifying
+    @Query("update User u set u.password = :passwordHash where u.id = :id")
+    int updatePassword(UUID id, String passwordHash);
 }
@@ -1,8 +1,12 @@
 package io.xcodebn.authservice.service;
 
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.xcodebn.authservice.cache.UserCache;
+import io.xcodebn.authservice.cache.UserCache.CachedUser;
 import io.xcodebn.authservice.dto.LoginRequestDto;
+import io.xcodebn.authservice.dto.LoginResponseDto;
 import io.xcodebn.authservice.util.JwtUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,30 +21,72 @@ public class AuthService {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final UserCache userCache;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
 
 
-    public AuthService(UserService userService, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthService(UserService userService, PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                       UserCache userCache, LoginThrottle loginThrottle, RefreshTokenService refreshTokenService) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.userCache = userCache;
+        this.loginThrottle = loginThrottle;
+        this.refreshTokenService = refreshTokenService;
     }
 
-    public Optional<String> authenticate(LoginRequestDto request){
-        Optional<String> token = userService.findByEmail(request.getEmail())
-                .filter(u -> passwordEncoder.matches(request.getPassword(),u.getPassword()))
-                .map(u-> jwtUtil.generateToken(u.getEmail(),u.getRole()));
+    public Optional<LoginResponseDto> authenticate(LoginRequestDto request){
+        // a locked email costs neither a query nor a BCrypt round
+        loginThrottle.checkAllowed(request.getEmail());
+
+        Optional<LoginResponseDto> token = userCache.get(request.getEmail(), userService::findByEmail)
+                .filter(u -> passwordMatches(u, request.getPassword()))
+                .map(u-> refreshTokenService.issue(u.id(), u.email(), u.role()));
+
+        if (token.isPresent()) {
+            loginThrottle.recordSuccess(request.getEmail());
+        } else {
+            loginThrottle.recordFailure(request.getEmail());
+        }
         return token;
     }
 
-    public boolean validateToken(String token) {
-        try{
-            jwtUtil.validateToken(token);
-            log.info("Token validated");
+    private boolean passwordMatches(CachedUser user, String password) {
+        if (userCache.isVerified(user, password)) {
             return true;
         }
-        catch (JwtException e){
-            log.error("Failed to validate jwt {}",e.getMessage());
+        if (!passwordEncoder.matches(password, user.passwordHash())) {
             return false;
         }
+
+        String passwordHash = user.passwordHash();
+        if (passwordEncoder.upgradeEncoding(passwordHash)) {
+            // stored with a lower work factor than auth.bcrypt.strength, we have the plain password now
+            passwordHash = passwordEncoder.encode(password);
+            userService.updatePasswordHash(user.id(), passwordHash);
+            log.info("Upgraded password hash for user {}", user.id());
+        }
+        userCache.markVerified(user, passwordHash, password);
+        return true;
+    }
+
+    public Optional<LoginResponseDto> refresh(String refreshToken) {
+        return refreshTokenService.rotate(refreshToken);
+    }
+
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
+
+    // runs on every gateway request in REMOTE mode, so outcomes are only logged at debug
+    public Optional<Claims> validateToken(String token) {
+        try{
+            return Optional.of(jwtUtil.validateToken(token));
+        }
+        catch (JwtException e){
+            log.debug("Failed to validate jwt {}",e.getMessage());
+            return Optional.empty();
+        }
     }
 }
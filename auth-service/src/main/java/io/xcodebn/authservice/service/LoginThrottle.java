@@ -0,0 +1,71 @@
+package io.xcodebn.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.xcodebn.authservice.exception.TooManyLoginAttemptsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Per-email failed login throttle. After max-failures failures inside the window the email is
+ * locked for the lockout duration and login attempts are refused before any DB lookup or BCrypt work.
+ * Bounded in size, so spraying random emails can't grow it without limit.
+ */
+@Component
+public class LoginThrottle {
+
+    private final int maxFailures;
+    private final Duration window;
+    private final Duration lockout;
+    private final Cache<String, Attempts> attempts;
+
+    public LoginThrottle(
+            @Value("${auth.throttle.max-failures:5}") int maxFailures,
+            @Value("${auth.throttle.window:PT15M}") Duration window,
+            @Value("${auth.throttle.lockout:PT5M}") Duration lockout,
+            @Value("${auth.throttle.max-tracked-emails:100000}") long maxTrackedEmails
+    ) {
+        this.maxFailures = maxFailures;
+        this.window = window;
+        this.lockout = lockout;
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(maxTrackedEmails)
+                .expireAfterWrite(window.compareTo(lockout) > 0 ? window : lockout)
+                .build();
+    }
+
+    public void checkAllowed(String email) {
+        Attempts current = attempts.getIfPresent(key(email));
+        Instant now = Instant.now();
+        if (current != null && current.lockedUntil() != null && current.lockedUntil().isAfter(now)) {
+            throw new TooManyLoginAttemptsException(Duration.between(now, current.lockedUntil()));
+        }
+    }
+
+    public void recordFailure(String email) {
+        Instant now = Instant.now();
+        attempts.asMap().compute(key(email), (key, current) -> {
+            if (current == null || current.windowStart().plus(window).isBefore(now)) {
+                current = new Attempts(0, now, null);
+            }
+            int failures = current.failures() + 1;
+            return new Attempts(failures, current.windowStart(), failures >= maxFailures ? now.plus(lockout) : null);
+        });
+    }
+
+    public void recordSuccess(String email) {
+        attempts.invalidate(key(email));
+    }
+
+    // case-insensitive on purpose: spelling an address differently must not buy more attempts
+    private static String key(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Attempts(int failures, Instant windowStart, Instant lockedUntil) {
+    }
+}
@@ -0,0 +1,127 @@
+package io.xcodebn.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.xcodebn.authservice.dto.LoginResponseDto;
+import io.xcodebn.authservice.model.RefreshToken;
+import io.xcodebn.authservice.repository.RefreshTokenRepository;
+import io.xcodebn.authservice.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens. Only the SHA-256 of a token is persisted and it is the primary key,
+ * so a refresh is one key lookup, one delete and one insert on refresh_tokens: no BCrypt and no users
+ * query. The delete row count decides who consumed a token when two requests race on it.
+ * Presenting an already rotated token is treated as theft and revokes every token of that user.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom secureRandom = new SecureRandom();
+    // hashes of rotated tokens -> user id, kept for the refresh ttl to spot reuse
+    private final Cache<String, UUID> rotated;
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            JwtUtil jwtUtil,
+            @Value("${jwt.refresh-token.ttl:P7D}") Duration refreshTokenTtl,
+            @Value("${jwt.refresh-token.rotated-max-size:100000}") long rotatedMaxSize
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.rotated = Caffeine.newBuilder()
+                .maximumSize(rotatedMaxSize)
+                .expireAfterWrite(refreshTokenTtl)
+                .build();
+    }
+
+    @Transactional
+    public LoginResponseDto issue(UUID userId, String email, String role) {
+        String refreshToken = newToken();
+        refreshTokenRepository.save(
+                new RefreshToken(hash(refreshToken), userId, email, role, Instant.now().plus(refreshTokenTtl)));
+        return response(email, role, refreshToken);
+    }
+
+    @Transactional
+    public Optional<LoginResponseDto> rotate(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        RefreshToken current = refreshTokenRepository.findById(tokenHash).orElse(null);
+        if (current == null) {
+            UUID reusedBy = rotated.getIfPresent(tokenHash);
+            if (reusedBy != null) {
+                log.warn("Rotated refresh token presented again, revoking all tokens of user {}", reusedBy);
+                revokeAll(reusedBy);
+            }
+            return Optional.empty();
+        }
+
+        if (current.getExpiresAt().isBefore(Instant.now())
+                || refreshTokenRepository.deleteByTokenHash(tokenHash) != 1) {
+            return Optional.empty();
+        }
+        rotated.put(tokenHash, current.getUserId());
+        return Optional.of(issue(current.getUserId(), current.getEmail(), current.getRole()));
+    }
+
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.deleteByTokenHash(hash(refreshToken));
+    }
+
+    @Transactional
+    public void revokeAll(UUID userId) {
+        refreshTokenRepository.deleteAllByUserId(userId);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval:PT10M}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private LoginResponseDto response(String email, String role, String refreshToken) {
+        return new LoginResponseDto(jwtUtil.generateToken(email, role), refreshToken,
+                jwtUtil.getAccessTokenTtl().toSeconds());
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        return BASE64_URL.encodeToString(bytes);
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return BASE64_URL.encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
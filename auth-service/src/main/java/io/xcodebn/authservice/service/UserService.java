@@ -3,8 +3,10 @@ package io.xcodebn.authservice.service;
 import io.xcodebn.authservice.model.User;
 import io.xcodebn.authservice.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class UserService {
@@ -18,4 +20,9 @@ public class UserService {
     public Optional<User> findByEmail(String email){
         return userRepository.findByEmail(email);
     }
+
+    @Transactional
+    public void updatePasswordHash(UUID id, String passwordHash){
+        userRepository.updatePassword(id, passwordHash);
+    }
 }
@@ -1,30 +1,46 @@
 package io.xcodebn.authservice.util;
 
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
-import lombok.experimental.UtilityClass;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Date;
 
 @Component
 public class JwtUtil {
 
-    private final Key secretKey;
+    // far above anything generateToken produces, keeps junk from reaching the decoder
+    private static final int MAX_TOKEN_LENGTH = 4096;
+    private static final byte[] EXP_CLAIM = "\"exp\":".getBytes(StandardCharsets.US_ASCII);
 
-    public JwtUtil(@Value("${jwt.secret}") String secret) {
+    private final SecretKey secretKey;
+    // thread safe and immutable, built once instead of per validation
+    private final JwtParser parser;
+    private final Duration accessTokenTtl;
+
+    // access tokens are short lived, clients renew them through /refresh instead of logging in again
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.access-token.ttl:PT15M}") Duration accessTokenTtl) {
         byte[] keyBytes = Base64.getDecoder()
                 .decode(secret.getBytes(StandardCharsets.UTF_8));
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        this.accessTokenTtl = accessTokenTtl;
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
     }
 
     public String generateToken(String email, String role) {
@@ -32,20 +48,70 @@ public class JwtUtil {
                 .subject(email)
                 .claim("role", role)
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 *10)) // 10 hours
+                .expiration(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis()))
                 .signWith(secretKey)
                 .compact();
     }
 
-    public void validateToken(String token) {
+    public Claims validateToken(String token) {
+        precheck(token);
         try {
-            Jwts.parser().verifyWith((SecretKey) secretKey)
-                    .build()
-                    .parseSignedClaims(token);
+            return parser.parseSignedClaims(token).getPayload();
         } catch (SignatureException e) {
             throw new JwtException("Invalid JWT signature");
-        } catch (JwtException e) {
+        } catch (ExpiredJwtException e) {
+            throw new JwtException("Expired JWT");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new JwtException("Invalid JWT");
+        }
+    }
+
+    /**
+     * Rejects tokens that are not three non-empty segments or whose exp is already past, without
+     * the HMAC or a JSON parse. Anything that gets through is still fully verified by the parser.
+     */
+    void precheck(String token) {
+        if (token == null || token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+            throw new JwtException("Invalid JWT");
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot <= firstDot + 1 || secondDot == token.length() - 1
+                || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new JwtException("Invalid JWT");
+        }
+        byte[] payload;
+        try {
+            payload = Base64.getUrlDecoder().decode(token.substring(firstDot + 1, secondDot));
+        } catch (IllegalArgumentException e) {
             throw new JwtException("Invalid JWT");
         }
+        long exp = readExp(payload);
+        if (exp >= 0 && exp * 1000 <= System.currentTimeMillis()) {
+            throw new JwtException("Expired JWT");
+        }
+    }
+
+    // exp as written by generateToken (compact JSON, epoch seconds), -1 if it isn't there
+    private static long readExp(byte[] payload) {
+        outer:
+        for (int i = 0; i <= payload.length - EXP_CLAIM.length; i++) {
+            for (int j = 0; j < EXP_CLAIM.length; j++) {
+                if (payload[i + j] != EXP_CLAIM[j]) {
+                    continue outer;
+                }
+            }
+            long exp = 0;
+            int digits = 0;
+            for (int k = i + EXP_CLAIM.length; k < payload.length && digits < 18; k++, digits++) {
+                byte b = payload[k];
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                exp = exp * 10 + (b - '0');
+            }
+            return digits == 0 ? -1 : exp;
+        }
+        return -1;
     }
-}
\ No newline at end of file
+}
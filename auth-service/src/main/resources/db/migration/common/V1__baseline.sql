@@ -1,3 +1,6 @@
+-- Schema and seed data as previously applied by data.sql. Databases created that way run this too, so every
+-- statement must skip what already exists
+
 -- Ensure the 'users' table exists
 CREATE TABLE IF NOT EXISTS "users" (
                                        id UUID PRIMARY KEY,
@@ -19,3 +22,14 @@ SELECT '223e4567-e89b-12d3-a456-426614174006', 'testuser@test.com',
 );
 
 
+
+-- Refresh tokens are stored as the base64url SHA-256 of the token
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    token_hash VARCHAR(43) PRIMARY KEY,
+    user_id UUID NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    role VARCHAR(50) NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id ON refresh_tokens (user_id);
@@ -0,0 +1,2 @@
+-- H2 (local runs, load tests) has no INCLUDE, trailing key columns cover the same select
+CREATE INDEX IF NOT EXISTS idx_users_email_login ON users (email, id, password, role, created_at);
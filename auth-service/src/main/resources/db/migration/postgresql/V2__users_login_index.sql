@@ -0,0 +1,3 @@
+-- findByEmail runs on every login cache miss and selects the whole row; with the other columns included
+-- it is an index-only scan instead of an index lookup plus a heap fetch
+CREATE INDEX IF NOT EXISTS idx_users_email_login ON users (email) INCLUDE (id, password, role, created_at);
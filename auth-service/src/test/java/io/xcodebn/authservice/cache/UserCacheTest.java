@@ -0,0 +1,71 @@
+package io.xcodebn.authservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.xcodebn.authservice.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+    private final UserCache userCache = new UserCache(true, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    // stands in for UserRepository.findByEmail, an exact match like the users.email unique constraint
+    private final Map<String, User> users = Map.of(
+            "Jane@Example.com", user("Jane@Example.com"),
+            "jane@example.com", user("jane@example.com"));
+    private final List<String> lookups = new ArrayList<>();
+
+    @Test
+    void shouldLoadWithEmailAsGiven() {
+        Optional<UserCache.CachedUser> cached = userCache.get("Jane@Example.com", this::findByEmail);
+
+        assertThat(lookups).containsExactly("Jane@Example.com");
+        assertThat(cached).map(UserCache.CachedUser::email).contains("Jane@Example.com");
+    }
+
+    @Test
+    void shouldKeepDifferentlyCasedEmailsApart() {
+        UserCache.CachedUser mixedCase = userCache.get("Jane@Example.com", this::findByEmail).orElseThrow();
+        UserCache.CachedUser lowerCase = userCache.get("jane@example.com", this::findByEmail).orElseThrow();
+
+        assertThat(mixedCase.id()).isNotEqualTo(lowerCase.id());
+    }
+
+    @Test
+    void shouldServeRepeatLookupsFromCache() {
+        userCache.get("Jane@Example.com", this::findByEmail);
+        userCache.get("Jane@Example.com", this::findByEmail);
+
+        assertThat(lookups).hasSize(1);
+    }
+
+    @Test
+    void shouldNotCacheUnknownEmails() {
+        assertThat(userCache.get("nobody@example.com", this::findByEmail)).isEmpty();
+        assertThat(userCache.get("nobody@example.com", this::findByEmail)).isEmpty();
+
+        assertThat(lookups).hasSize(2);
+    }
+
+    private Optional<User> findByEmail(String email) {
+        lookups.add(email);
+        return Optional.ofNullable(users.get(email));
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        user.setPassword("$2a$12$hash");
+        user.setRole("USER");
+        return user;
+    }
+}
@@ -0,0 +1,82 @@
+package io.xcodebn.authservice.service;
+
+import io.xcodebn.authservice.exception.TooManyLoginAttemptsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    private final LoginThrottle throttle = new LoginThrottle(3, Duration.ofMinutes(15), Duration.ofMinutes(5), 1000);
+
+    @Test
+    void shouldAllowLoginsBelowMaxFailures() {
+        fail(throttle, "jane@example.com", 2);
+
+        assertThatCode(() -> throttle.checkAllowed("jane@example.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldLockEmailAfterMaxFailures() {
+        fail(throttle, "jane@example.com", 3);
+
+        assertThatThrownBy(() -> throttle.checkAllowed("jane@example.com"))
+                .isInstanceOfSatisfying(TooManyLoginAttemptsException.class, e -> assertThat(e.getRetryAfter())
+                        .isPositive()
+                        .isLessThanOrEqualTo(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void shouldTrackEmailsCaseInsensitively() {
+        fail(throttle, "Jane@Example.com", 2);
+        fail(throttle, " jane@example.com ", 1);
+
+        assertThatThrownBy(() -> throttle.checkAllowed("JANE@EXAMPLE.COM"))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+    }
+
+    @Test
+    void shouldLeaveOtherEmailsAlone() {
+        fail(throttle, "jane@example.com", 3);
+
+        assertThatCode(() -> throttle.checkAllowed("john@example.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldResetFailuresOnSuccess() {
+        fail(throttle, "jane@example.com", 2);
+        throttle.recordSuccess("jane@example.com");
+        fail(throttle, "jane@example.com", 2);
+
+        assertThatCode(() -> throttle.checkAllowed("jane@example.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldTolerateMissingEmail() {
+        fail(throttle, null, 2);
+
+        assertThatCode(() -> throttle.checkAllowed(null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldUnlockOnceLockoutIsOver() throws InterruptedException {
+        LoginThrottle shortLockout = new LoginThrottle(1, Duration.ofMinutes(15), Duration.ofMillis(50), 1000);
+        fail(shortLockout, "jane@example.com", 1);
+        assertThatThrownBy(() -> shortLockout.checkAllowed("jane@example.com"))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+
+        Thread.sleep(100);
+
+        assertThatCode(() -> shortLockout.checkAllowed("jane@example.com")).doesNotThrowAnyException();
+    }
+
+    private static void fail(LoginThrottle throttle, String email, int failures) {
+        for (int i = 0; i < failures; i++) {
+            throttle.recordFailure(email);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.xcodebn.authservice.service;
+
+import io.xcodebn.authservice.dto.LoginResponseDto;
+import io.xcodebn.authservice.model.RefreshToken;
+import io.xcodebn.authservice.repository.RefreshTokenRepository;
+import io.xcodebn.authservice.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    // the refresh_tokens table, keyed by token hash
+    private final Map<String, RefreshToken> tokens = new ConcurrentHashMap<>();
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            tokens.put(token.getTokenHash(), token);
+            return token;
+        });
+        when(repository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(tokens.get(invocation.<String>getArgument(0))));
+        when(repository.deleteByTokenHash(anyString()))
+                .thenAnswer(invocation -> tokens.remove(invocation.<String>getArgument(0)) != null ? 1 : 0);
+        when(repository.deleteAllByUserId(any(UUID.class))).thenAnswer(invocation -> {
+            UUID userId = invocation.getArgument(0);
+            int before = tokens.size();
+            tokens.values().removeIf(token -> token.getUserId().equals(userId));
+            return before - tokens.size();
+        });
+
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+        service = new RefreshTokenService(repository, new JwtUtil(secret, Duration.ofMinutes(15)), Duration.ofDays(7), 1000);
+    }
+
+    @Test
+    void shouldRotateIntoNewSingleUseToken() {
+        String first = service.issue(USER_ID, "jane@example.com", "USER").getRefreshToken();
+
+        LoginResponseDto rotated = service.rotate(first).orElseThrow();
+
+        assertThat(rotated.getToken()).isNotBlank();
+        assertThat(rotated.getRefreshToken()).isNotEqualTo(first);
+        assertThat(tokens).hasSize(1);
+        assertThat(service.rotate(rotated.getRefreshToken())).isPresent();
+    }
+
+    @Test
+    void shouldRevokeEveryTokenOfUserWhenRotatedTokenIsReused() {
+        String stolen = service.issue(USER_ID, "jane@example.com", "USER").getRefreshToken();
+        String current = service.rotate(stolen).orElseThrow().getRefreshToken();
+        service.issue(USER_ID, "jane@example.com", "USER");
+        String otherUsers = service.issue(UUID.randomUUID(), "john@example.com", "USER").getRefreshToken();
+
+        assertThat(service.rotate(stolen)).isEmpty();
+
+        verify(repository).deleteAllByUserId(USER_ID);
+        assertThat(service.rotate(current)).isEmpty();
+        assertThat(service.rotate(otherUsers)).isPresent();
+    }
+
+    @Test
+    void shouldRejectUnknownTokenWithoutRevoking() {
+        service.issue(USER_ID, "jane@example.com", "USER");
+
+        assertThat(service.rotate("never-issued")).isEmpty();
+
+        verify(repository, never()).deleteAllByUserId(any(UUID.class));
+        assertThat(tokens).hasSize(1);
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String refreshToken = service.issue(USER_ID, "jane@example.com", "USER").getRefreshToken();
+        tokens.values().forEach(token -> token.setExpiresAt(Instant.now().minusSeconds(1)));
+
+        assertThat(service.rotate(refreshToken)).isEmpty();
+
+        verify(repository, never()).deleteAllByUserId(any(UUID.class));
+    }
+
+    @Test
+    void shouldLetOnlyOneOfTwoRacingRefreshesWin() {
+        String refreshToken = service.issue(USER_ID, "jane@example.com", "USER").getRefreshToken();
+        RefreshToken row = tokens.values().iterator().next();
+        // the other request deletes the row between our lookup and our delete
+        when(repository.findById(row.getTokenHash())).thenAnswer(invocation -> {
+            tokens.remove(row.getTokenHash());
+            return Optional.of(row);
+        });
+
+        assertThat(service.rotate(refreshToken)).isEmpty();
+        assertThat(tokens).isEmpty();
+    }
+}
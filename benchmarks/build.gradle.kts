@@ -0,0 +1,56 @@
+plugins {
+    java
+    id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.3"
+}
+
+group = "io.xcodebn"
+version = "0.0.1-SNAPSHOT"
+description = "benchmarks"
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+// same versions the services resolve, the included builds don't export their BOM
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.5.6")
+    }
+}
+
+dependencies {
+    jmh("io.xcodebn:patient-service")
+    jmh("io.xcodebn:auth-service")
+    // the services declare these as implementation, so they are not on our compile classpath
+    jmh("org.springframework.boot:spring-boot-starter-validation")
+    jmh("com.google.protobuf:protobuf-java:4.29.1")
+    jmh("io.jsonwebtoken:jjwt-impl:0.12.6")
+    jmh("io.jsonwebtoken:jjwt-jackson:0.12.6")
+    // PatientListReadBenchmark runs the real queries against in-memory H2
+    jmh("org.hibernate.orm:hibernate-core")
+    jmh("com.h2database:h2")
+    // PatientSerializationBenchmark writes JSON like Spring Boot's ObjectMapper does
+    jmh("com.fasterxml.jackson.core:jackson-databind")
+    jmh("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
+}
+
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    warmup = "2s"
+    iterations = 5
+    timeOnIteration = "2s"
+    // allocation rate and bytes per op next to every score
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    // pass -Pjmh.includes=Jwt to run a subset
+    providers.gradleProperty("jmh.includes").orNull?.let { includes = listOf(it) }
+}
@@ -0,0 +1,5 @@
+rootProject.name = "benchmarks"
+
+// benchmark the services' real classes instead of copies
+includeBuild("../patient-service")
+includeBuild("../auth-service")
@@ -0,0 +1,93 @@
+package io.xcodebn.benchmarks;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.xcodebn.authservice.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing on login and validation on every /validate call in auth-service.
+ * The *PerCallParser benchmarks reproduce the old validateToken, which built a parser per call,
+ * so the shared parser and the expired/malformed precheck can be compared against it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private SecretKey secretKey;
+    private String token;
+    private String expiredToken;
+    private String malformedToken;
+
+    @Setup
+    public void setUp() {
+        byte[] key = new byte[64];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+        String secret = Base64.getEncoder().encodeToString(key);
+        secretKey = Keys.hmacShaKeyFor(key);
+        jwtUtil = new JwtUtil(secret, Duration.ofMinutes(15));
+        token = jwtUtil.generateToken("jane.doe@example.com", "ADMIN");
+        expiredToken = new JwtUtil(secret, Duration.ofMinutes(-1)).generateToken("jane.doe@example.com", "ADMIN");
+        malformedToken = token.substring(0, token.lastIndexOf('.'));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("jane.doe@example.com", "ADMIN");
+    }
+
+    @Benchmark
+    public Object validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Object validateTokenPerCallParser() {
+        return Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public boolean rejectExpired() {
+        return rejects(() -> jwtUtil.validateToken(expiredToken));
+    }
+
+    @Benchmark
+    public boolean rejectExpiredPerCallParser() {
+        return rejects(() -> Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(expiredToken));
+    }
+
+    @Benchmark
+    public boolean rejectMalformed() {
+        return rejects(() -> jwtUtil.validateToken(malformedToken));
+    }
+
+    @Benchmark
+    public boolean rejectMalformedPerCallParser() {
+        return rejects(() -> Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(malformedToken));
+    }
+
+    private static boolean rejects(Runnable validation) {
+        try {
+            validation.run();
+            return false;
+        } catch (JwtException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.xcodebn.benchmarks;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import patients.events.PatientEvent;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PatientEvent serialization as done by the outbox, and parsing as done by the analytics consumer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PatientEventBenchmark {
+
+    private String patientId;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        patientId = UUID.randomUUID().toString();
+        serialized = build().toByteArray();
+    }
+
+    @Benchmark
+    public PatientEvent build() {
+        return PatientEvent.newBuilder()
+                .setPatientId(patientId)
+                .setName("Jane Doe")
+                .setEmail("jane.doe@example.com")
+                .setEventType("PATIENT_CREATED")
+                .setDateOfBirth("1990-01-01")
+                .setRegisteredDate("2025-02-02")
+                .build();
+    }
+
+    @Benchmark
+    public byte[] buildAndSerialize() {
+        return build().toByteArray();
+    }
+
+    @Benchmark
+    public PatientEvent parse() throws InvalidProtocolBufferException {
+        return PatientEvent.parseFrom(serialized);
+    }
+}
@@ -0,0 +1,105 @@
+package io.xcodebn.benchmarks;
+
+import io.xcodebn.patientservice.dto.PatientResponseDTO;
+import io.xcodebn.patientservice.dto.PatientSummary;
+import io.xcodebn.patientservice.mapper.PatientMapper;
+import io.xcodebn.patientservice.model.Patient;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading one GET /patients page of 10k rows: managed entities mapped with PatientMapper (the old path,
+ * read-write transaction, dirty checked on commit) against the PatientSummary constructor projection in a
+ * read-only transaction. gc.alloc.rate.norm is the heap allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PatientListReadBenchmark {
+
+    private static final String ENTITY_QUERY = "from Patient p order by p.registeredDate, p.id";
+    private static final String PROJECTION_QUERY = """
+            select new io.xcodebn.patientservice.dto.PatientSummary(
+                p.id, p.email, p.name, p.address, p.dateOfBirth, p.registeredDate)
+            from Patient p
+            order by p.registeredDate, p.id
+            """;
+
+    @Param("10000")
+    private int rows;
+
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Patient.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:patients;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create")
+                .setProperty("hibernate.jdbc.batch_size", "500")
+                .setProperty("jakarta.persistence.validation.mode", "none")
+                .buildSessionFactory();
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < rows; i++) {
+                Patient patient = new Patient();
+                patient.setName("Patient " + i);
+                patient.setEmail("patient" + i + "@example.com");
+                patient.setAddress(i + " Main Street");
+                patient.setDateOfBirth(LocalDate.of(1950, 1, 1).plusDays(i % 20000));
+                patient.setRegisteredDate(LocalDate.of(2020, 1, 1).plusDays(i % 1500));
+                session.insert(patient);
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<PatientResponseDTO> entitiesAndMapper() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            List<PatientResponseDTO> page = session.createSelectionQuery(ENTITY_QUERY, Patient.class)
+                    .setMaxResults(rows)
+                    .getResultList()
+                    .stream()
+                    .map(PatientMapper::toPatientResponseDTO)
+                    .toList();
+            session.getTransaction().commit();
+            return page;
+        }
+    }
+
+    @Benchmark
+    public List<PatientSummary> projection() {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            session.beginTransaction();
+            List<PatientSummary> page = session.createSelectionQuery(PROJECTION_QUERY, PatientSummary.class)
+                    .setMaxResults(rows)
+                    .getResultList();
+            session.getTransaction().commit();
+            return page;
+        }
+    }
+}
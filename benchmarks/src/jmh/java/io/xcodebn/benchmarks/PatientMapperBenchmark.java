@@ -0,0 +1,71 @@
+package io.xcodebn.benchmarks;
+
+import io.xcodebn.patientservice.dto.PatientRequestDTO;
+import io.xcodebn.patientservice.dto.PatientResponseDTO;
+import io.xcodebn.patientservice.mapper.PatientMapper;
+import io.xcodebn.patientservice.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO mapping done on every patient request, including the LocalDate.parse calls in toPatient.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PatientMapperBenchmark {
+
+    private Patient patient;
+    private PatientRequestDTO request;
+    private PatientRequestDTO requestWithoutRegisteredDate;
+
+    @Setup
+    public void setUp() {
+        patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setName("Jane Doe");
+        patient.setEmail("jane.doe@example.com");
+        patient.setAddress("1 Main Street");
+        patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        patient.setRegisteredDate(LocalDate.of(2025, 2, 2));
+
+        request = PatientRequestDTO.builder()
+                .name("Jane Doe")
+                .email("jane.doe@example.com")
+                .address("1 Main Street")
+                .dateOfBirth("1990-01-01")
+                .registeredDate("2025-02-02")
+                .build();
+        requestWithoutRegisteredDate = PatientRequestDTO.builder()
+                .name("Jane Doe")
+                .email("jane.doe@example.com")
+                .address("1 Main Street")
+                .dateOfBirth("1990-01-01")
+                .build();
+    }
+
+    @Benchmark
+    public PatientResponseDTO toPatientResponseDTO() {
+        return PatientMapper.toPatientResponseDTO(patient);
+    }
+
+    @Benchmark
+    public Patient toPatient() {
+        return PatientMapper.toPatient(request);
+    }
+
+    // blank registeredDate takes the LocalDate.now() branch instead of a second parse
+    @Benchmark
+    public Patient toPatientDefaultRegisteredDate() {
+        return PatientMapper.toPatient(requestWithoutRegisteredDate);
+    }
+}
@@ -0,0 +1,69 @@
+package io.xcodebn.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.xcodebn.patientservice.dto.PatientPageDTO;
+import io.xcodebn.patientservice.dto.PatientSummary;
+import io.xcodebn.patientservice.mapper.PatientProtoMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a GET /patients page as JSON (Jackson configured like Spring Boot's ObjectMapper) against the
+ * application/x-protobuf PatientList, including the DTO to message mapping. Both return the body size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatientSerializationBenchmark {
+
+    // the default page, the page size cap, and a list the size of the old unpaged GET /patients
+    @Param({"50", "500", "10000"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+    private PatientPageDTO page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        List<PatientSummary> patients = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            patients.add(new PatientSummary(UUID.randomUUID(), "patient" + i + "@example.com", "Patient " + i,
+                    i + " Main Street, Springfield", LocalDate.of(1950, 1, 1).plusDays(i % 20_000),
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365)));
+        }
+        page = new PatientPageDTO(patients, "MjAyNC0xMi0zMXw0ZjY1YmQ3Yy0wZGQ5LTRmNDEtOWQzNi1jZjZiMmRmMDU3NWI");
+    }
+
+    @Benchmark
+    public int json() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        objectMapper.writeValue(out, page);
+        return out.size();
+    }
+
+    @Benchmark
+    public int protobuf() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        PatientProtoMapper.toProto(page).writeTo(out);
+        return out.size();
+    }
+}
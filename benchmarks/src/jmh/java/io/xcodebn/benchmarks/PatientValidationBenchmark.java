@@ -0,0 +1,70 @@
+package io.xcodebn.benchmarks;
+
+import io.xcodebn.patientservice.dto.PatientRequestDTO;
+import io.xcodebn.patientservice.dto.validators.CreatePatientValidationGroup;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.groups.Default;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of the create request with the same groups as POST /patients and the bulk import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PatientValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private PatientRequestDTO valid;
+    private PatientRequestDTO invalid;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        valid = PatientRequestDTO.builder()
+                .name("Jane Doe")
+                .email("jane.doe@example.com")
+                .address("1 Main Street")
+                .dateOfBirth("1990-01-01")
+                .registeredDate("2025-02-02")
+                .build();
+        // violations build messages through the expression language, the expensive path
+        invalid = PatientRequestDTO.builder()
+                .name("")
+                .email("not-an-email")
+                .address("1 Main Street")
+                .dateOfBirth("1990-01-01")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PatientRequestDTO>> validateValid() {
+        return validator.validate(valid, Default.class, CreatePatientValidationGroup.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PatientRequestDTO>> validateInvalid() {
+        return validator.validate(invalid, Default.class, CreatePatientValidationGroup.class);
+    }
+}
@@ -1,9 +1,11 @@
 package io.xcodebn.billingservice.grpc;
 
+import billing.BillingAccountResult;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
 import billing.BillingServiceGrpc.BillingServiceImplBase;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
@@ -18,15 +20,92 @@ public class BillingGrpcService extends BillingServiceImplBase {
 
         log.info("createBillingAccoun request recieved {}",request.toString());
 
+        responseObserver.onNext(createAccount(request));
+        responseObserver.onCompleted();
+
+    }
+
+    /**
+     * Bulk variant. Auto inbound flow control is off: the next request is only pulled once the
+     * response stream can take another message, so a slow client never makes us buffer results.
+     */
+    @Override
+    public StreamObserver<BillingRequest> createBillingAccounts(StreamObserver<BillingAccountResult> responseObserver) {
+        ServerCallStreamObserver<BillingAccountResult> serverObserver =
+                (ServerCallStreamObserver<BillingAccountResult>) responseObserver;
+        serverObserver.disableAutoRequest();
+
+        OnReadyHandler onReadyHandler = new OnReadyHandler(serverObserver);
+        serverObserver.setOnReadyHandler(onReadyHandler);
+
+        return new StreamObserver<>() {
+            private int processed;
+
+            @Override
+            public void onNext(BillingRequest request) {
+                BillingAccountResult result;
+                try {
+                    BillingResponse response = createAccount(request);
+                    result = BillingAccountResult.newBuilder()
+                            .setPatientId(request.getPatientId())
+                            .setAccountId(response.getAccountId())
+                            .setStatus(response.getStatus())
+                            .build();
+                } catch (RuntimeException e) {
+                    result = BillingAccountResult.newBuilder()
+                            .setPatientId(request.getPatientId())
+                            .setStatus("FAILED")
+                            .setError(String.valueOf(e.getMessage()))
+                            .build();
+                }
+                serverObserver.onNext(result);
+                processed++;
+
+                if (serverObserver.isReady()) {
+                    serverObserver.request(1);
+                } else {
+                    // the onReady handler pulls the next request once the client catches up
+                    onReadyHandler.wasReady = false;
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("createBillingAccounts stream aborted after {} accounts: {}", processed, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                log.info("createBillingAccounts stream completed, {} accounts", processed);
+                serverObserver.onCompleted();
+            }
+        };
+    }
+
+    private BillingResponse createAccount(BillingRequest request) {
         //Bussiness logic e.g save to database and so
 
-        BillingResponse response = BillingResponse.newBuilder()
+        return BillingResponse.newBuilder()
                 .setAccountId("12345")
                 .setStatus("Active")
                 .build();
+    }
 
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
+    private static class OnReadyHandler implements Runnable {
+        private final ServerCallStreamObserver<BillingAccountResult> serverObserver;
+        // guards against requesting twice when onReady fires more than once without an onNext in between
+        private boolean wasReady;
+
+        OnReadyHandler(ServerCallStreamObserver<BillingAccountResult> serverObserver) {
+            this.serverObserver = serverObserver;
+        }
 
+        @Override
+        public void run() {
+            if (serverObserver.isReady() && !wasReady) {
+                wasReady = true;
+                serverObserver.request(1);
+            }
+        }
     }
 }
@@ -5,18 +5,52 @@ plugins {
 group = "io.xcodebn"
 version = "1.0-SNAPSHOT"
 
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
 repositories {
     mavenCentral()
 }
 
+// open-model load generator, run with ./gradlew loadTest (see load.LoadTestMain)
+val loadTest by sourceSets.creating
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 
     testImplementation("io.rest-assured:rest-assured:5.5.6")
+
+    "loadTestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
+    "loadTestImplementation"("com.fasterxml.jackson.core:jackson-databind:2.19.2")
+    // Kafka stand-in for -Pload.start-services=true
+    "loadTestImplementation"("org.springframework.kafka:spring-kafka-test:3.3.10")
+    "loadTestRuntimeOnly"("org.slf4j:slf4j-simple:2.0.17")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Drives login and the patient lifecycle through the gateway and reports latency percentiles"
+    classpath = loadTest.runtimeClasspath
+    mainClass = "load.LoadTestMain"
+    workingDir = projectDir
+    // every -Pload.* property becomes a system property of the same name
+    systemProperties(project.properties.filterKeys { it.startsWith("load.") })
+}
+
+tasks.register<JavaExec>("wireBenchmark") {
+    group = "verification"
+    description = "Reads 50k patients through the gateway with and without gzip and reports bytes on the wire and latency"
+    classpath = loadTest.runtimeClasspath
+    mainClass = "load.PatientListWireMain"
+    workingDir = projectDir
+    systemProperties(project.properties.filterKeys { it.startsWith("load.") })
+}
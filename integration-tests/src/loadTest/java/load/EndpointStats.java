@@ -0,0 +1,44 @@
+package load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error count for one endpoint, safe to record into from any thread.
+ * Values are microseconds, tracked up to one minute with three significant digits.
+ */
+final class EndpointStats {
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    // startNanos is the intended start for the first request of an iteration, so queueing delay counts too
+    void record(long startNanos, boolean success) {
+        if (!success) {
+            errors.increment();
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        latencies.recordValue(Math.min(micros, latencies.getHighestTrackableValue()));
+    }
+
+    String name() {
+        return name;
+    }
+
+    Histogram latencies() {
+        return latencies;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+}
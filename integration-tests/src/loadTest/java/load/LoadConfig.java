@@ -0,0 +1,41 @@
+package load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Load test settings, read from -Pload.* (forwarded as system properties by the loadTest task).
+ * Rates are arrivals per second: new iterations start on schedule whether or not earlier ones finished.
+ */
+record LoadConfig(
+        String baseUri,
+        String email,
+        String password,
+        double loginRate,
+        double patientRate,
+        Duration warmup,
+        Duration duration,
+        Duration requestTimeout,
+        Path reportDir,
+        boolean startServices,
+        Path servicesDir
+) {
+
+    static LoadConfig fromSystemProperties() {
+        return new LoadConfig(
+                System.getProperty("load.base-uri", "http://localhost:4004"),
+                System.getProperty("load.email", "testuser@test.com"),
+                System.getProperty("load.password", "password123"),
+                Double.parseDouble(System.getProperty("load.login-rate", "2")),
+                // a lifecycle is four /api/patients requests from the one load user, 10/s stays under the
+                // gateway's per-client limit of 50/s
+                Double.parseDouble(System.getProperty("load.patient-rate", "10")),
+                Duration.parse(System.getProperty("load.warmup", "PT10S")),
+                Duration.parse(System.getProperty("load.duration", "PT60S")),
+                Duration.parse(System.getProperty("load.request-timeout", "PT10S")),
+                Path.of(System.getProperty("load.report-dir", "build/reports/load")),
+                Boolean.parseBoolean(System.getProperty("load.start-services", "false")),
+                Path.of(System.getProperty("load.services-dir", ".."))
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Writes load-report.json (counts, throughput and p50/p90/p99/p999/max in milliseconds per endpoint)
+ * plus one HdrHistogram percentile distribution per endpoint (&lt;endpoint&gt;.hgrm) for plotting.
+ */
+final class LoadReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private LoadReport() {
+    }
+
+    static Path write(LoadConfig config, Instant startedAt, Duration measured, Collection<EndpointStats> endpoints)
+            throws IOException {
+        Files.createDirectories(config.reportDir());
+
+        ObjectNode report = MAPPER.createObjectNode();
+        report.put("startedAt", startedAt.toString());
+        report.put("baseUri", config.baseUri());
+        report.put("loginRatePerSecond", config.loginRate());
+        report.put("patientRatePerSecond", config.patientRate());
+        report.put("measuredSeconds", measured.toMillis() / 1000.0);
+
+        ObjectNode results = report.putObject("endpoints");
+        for (EndpointStats stats : endpoints) {
+            Histogram histogram = stats.latencies();
+            ObjectNode node = results.putObject(stats.name());
+            node.put("count", histogram.getTotalCount());
+            node.put("errors", stats.errors());
+            node.put("throughputPerSecond", histogram.getTotalCount() / Math.max(1e-3, measured.toMillis() / 1000.0));
+            ObjectNode latency = node.putObject("latencyMs");
+            latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+            latency.put("p90", millis(histogram.getValueAtPercentile(90)));
+            latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+            latency.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+            latency.put("max", millis(histogram.getMaxValue()));
+            latency.put("mean", histogram.getMean() / 1000.0);
+
+            try (PrintStream out = new PrintStream(config.reportDir().resolve(stats.name() + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        Path file = config.reportDir().resolve("load-report.json");
+        MAPPER.writeValue(file.toFile(), report);
+        return file;
+    }
+
+    static void print(Collection<EndpointStats> endpoints) {
+        System.out.printf("%-8s %8s %7s %9s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms", "mean ms");
+        for (EndpointStats stats : endpoints) {
+            Histogram h = stats.latencies();
+            System.out.printf("%-8s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", stats.name(), h.getTotalCount(), stats.errors(),
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                    millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()), h.getMean() / 1000.0);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
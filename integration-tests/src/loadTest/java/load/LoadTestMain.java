@@ -0,0 +1,112 @@
+package load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test through the gateway. Two open-model scenarios run side by side:
+ * logins at load.login-rate per second, and patient lifecycles (create, list, update, delete)
+ * at load.patient-rate per second. Iterations due during load.warmup are not recorded, even the ones
+ * that finish after it.
+ *
+ * All requests come from one user, so against a running stack a patient rate above 12/s needs the
+ * gateway's gateway.rate-limit.patients limits raised; with load.start-services they are sized to the rate.
+ *
+ * <pre>
+ * ./gradlew loadTest -Pload.duration=PT2M
+ * ./gradlew loadTest -Pload.start-services=true -Pload.patient-rate=50   # H2 + in-process Kafka, needs the services' bootJars
+ * </pre>
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.fromSystemProperties();
+        LocalServices services = config.startServices()
+                ? LocalServices.start(config.servicesDir(), config.reportDir().resolve("logs"), rateLimitArgs(config))
+                : null;
+        try {
+            run(config);
+        } finally {
+            if (services != null) {
+                services.close();
+            }
+        }
+    }
+
+    private static void run(LoadConfig config) throws Exception {
+        Map<String, EndpointStats> endpoints = endpointStats();
+        // iterations are tagged by when they were due: warmup ones record here and are dropped, however late they finish
+        Map<String, EndpointStats> warmup = endpointStats();
+
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            PatientApiClient client = new PatientApiClient(config.baseUri(), config.requestTimeout());
+            String token = client.login(config.email(), config.password(), warmup.get("login"), System.nanoTime())
+                    .orElseThrow(() -> new IllegalStateException("Login as " + config.email() + " failed at " + config.baseUri()));
+
+            long measureFromNanos = System.nanoTime() + config.warmup().toNanos();
+            OpenLoad logins = new OpenLoad(config.loginRate(), config.warmup().plus(config.duration()), virtualThreads,
+                    intendedStart -> {
+                        Map<String, EndpointStats> phase = intendedStart < measureFromNanos ? warmup : endpoints;
+                        client.login(config.email(), config.password(), phase.get("login"), intendedStart);
+                    });
+            OpenLoad lifecycles = new OpenLoad(config.patientRate(), config.warmup().plus(config.duration()), virtualThreads,
+                    intendedStart -> {
+                        Map<String, EndpointStats> phase = intendedStart < measureFromNanos ? warmup : endpoints;
+                        String email = "load-" + UUID.randomUUID() + "@test.com";
+                        client.createPatient(token, email, phase.get("create"), intendedStart).ifPresent(id -> {
+                            client.listPatients(token, phase.get("list"));
+                            client.updatePatient(token, id, email, phase.get("update"));
+                            client.deletePatient(token, id, phase.get("delete"));
+                        });
+                    });
+
+            Thread loginArrivals = Thread.ofPlatform().name("login-arrivals").start(logins);
+            Thread patientArrivals = Thread.ofPlatform().name("patient-arrivals").start(lifecycles);
+
+            System.out.printf("Warming up for %s%n", config.warmup());
+            Thread.sleep(Math.max(0, measureFromNanos - System.nanoTime()) / 1_000_000);
+            Instant measuredFrom = Instant.now();
+            System.out.printf("Measuring for %s%n", config.duration());
+
+            loginArrivals.join();
+            patientArrivals.join();
+            virtualThreads.shutdown();
+            if (!virtualThreads.awaitTermination(config.requestTimeout().toMillis() * 4, TimeUnit.MILLISECONDS)) {
+                System.out.println("Some iterations were still running at the end, they are not in the report");
+                virtualThreads.shutdownNow();
+            }
+            Duration measured = Duration.between(measuredFrom, Instant.now());
+
+            LoadReport.print(endpoints.values());
+            Path report = LoadReport.write(config, measuredFrom, measured, endpoints.values());
+            System.out.printf("Report written to %s%n", report.toAbsolutePath());
+        }
+    }
+
+    // twice the lifecycle request rate, so the limiter stays on the request path without rejecting the load
+    private static List<String> rateLimitArgs(LoadConfig config) {
+        long perSecond = Math.max(50, (long) Math.ceil(config.patientRate() * 4 * 2));
+        return List.of(
+                "--gateway.rate-limit.patients.replenish-rate=" + perSecond,
+                "--gateway.rate-limit.patients.burst-capacity=" + perSecond * 2);
+    }
+
+    private static Map<String, EndpointStats> endpointStats() {
+        Map<String, EndpointStats> endpoints = new LinkedHashMap<>();
+        for (String name : new String[]{"login", "create", "list", "update", "delete"}) {
+            endpoints.put(name, new EndpointStats(name));
+        }
+        return endpoints;
+    }
+}
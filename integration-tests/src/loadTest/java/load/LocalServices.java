@@ -0,0 +1,138 @@
+package load;
+
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the stack on this machine for -Pload.start-services=true: an in-process Kafka broker
+ * and the billing, auth, patient and gateway boot jars (build them first with bootJar), with the
+ * databases on in-memory H2. Service logs go to the report directory.
+ */
+final class LocalServices implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final EmbeddedKafkaKraftBroker kafka;
+    private final List<Process> processes = new ArrayList<>();
+    private final Path servicesDir;
+    private final Path logDir;
+
+    private final List<String> gatewayArgs;
+
+    private LocalServices(Path servicesDir, Path logDir, List<String> gatewayArgs) {
+        this.servicesDir = servicesDir;
+        this.logDir = logDir;
+        this.gatewayArgs = gatewayArgs;
+        this.kafka = new EmbeddedKafkaKraftBroker(1, 3, "patient").kafkaPorts(9092);
+    }
+
+    static LocalServices start(Path servicesDir, Path logDir) throws IOException, InterruptedException {
+        return start(servicesDir, logDir, List.of());
+    }
+
+    static LocalServices start(Path servicesDir, Path logDir, List<String> gatewayArgs)
+            throws IOException, InterruptedException {
+        LocalServices services = new LocalServices(servicesDir, logDir, gatewayArgs);
+        try {
+            services.startAll();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            services.close();
+            throw e;
+        }
+        return services;
+    }
+
+    private void startAll() throws IOException, InterruptedException {
+        Files.createDirectories(logDir);
+        kafka.afterPropertiesSet();
+        String bootstrapServers = kafka.getBrokersAsString();
+
+        byte[] key = new byte[64];
+        new SecureRandom().nextBytes(key);
+        String jwtSecret = Base64.getEncoder().encodeToString(key);
+
+        launch("billing-service", 4001, List.of(), Map.of());
+        // schema and seed rows come from each service's Flyway migrations
+        launch("auth-service", 4005, List.of(
+                "--spring.datasource.url=jdbc:h2:mem:auth;DATABASE_TO_LOWER=TRUE",
+                "--jwt.secret=" + jwtSecret
+        ), Map.of());
+        launch("patient-service", 4000, List.of(
+                "--spring.datasource.url=jdbc:h2:mem:patients",
+                "--spring.kafka.bootstrap-servers=" + bootstrapServers,
+                "--billing.service.address=localhost"
+        ), Map.of());
+        launch("api-gateway", 4004, gatewayArgs, Map.of(
+                "JWT_SECRET", jwtSecret,
+                "AUTH_VALIDATION_MODE", "LOCAL",
+                "AUTH_SERVICE_URL", "http://localhost:4005",
+                "PATIENT_SERVICE_URL", "http://localhost:4000"
+        ));
+    }
+
+    private void launch(String service, int port, List<String> args, Map<String, String> env)
+            throws IOException, InterruptedException {
+        Path jar = servicesDir.resolve(service).resolve("build/libs/" + service + "-0.0.1-SNAPSHOT.jar");
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException("Missing " + jar + ", run bootJar in " + service + " first");
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.addAll(args);
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logDir.resolve(service + ".log").toFile());
+        builder.environment().putAll(env);
+        Process process = builder.start();
+        processes.add(process);
+
+        awaitPort(service, process, port);
+        System.out.printf("%s is up on port %d%n", service, port);
+    }
+
+    private static void awaitPort(String service, Process process, int port) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(service + " exited with " + process.exitValue() + ", see its log");
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 500);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException(service + " did not open port " + port + " within " + STARTUP_TIMEOUT);
+    }
+
+    @Override
+    public void close() {
+        for (Process process : processes.reversed()) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            try {
+                process.onExit().get();
+            } catch (Exception e) {
+                process.destroyForcibly();
+            }
+        }
+        kafka.destroy();
+    }
+}
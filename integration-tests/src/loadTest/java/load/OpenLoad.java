@@ -0,0 +1,51 @@
+package load;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-model arrivals: iteration n is due at start + n / rate and runs on its own virtual thread,
+ * so a slow system sees requests pile up instead of the generator quietly slowing down.
+ * Each iteration receives its intended start time to measure latency from.
+ */
+final class OpenLoad implements Runnable {
+
+    private final double ratePerSecond;
+    private final Duration duration;
+    private final ExecutorService executor;
+    private final LongConsumer iteration;
+
+    OpenLoad(double ratePerSecond, Duration duration, ExecutorService executor, LongConsumer iteration) {
+        this.ratePerSecond = ratePerSecond;
+        this.duration = duration;
+        this.executor = executor;
+        this.iteration = iteration;
+    }
+
+    @Override
+    public void run() {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long n = 0; ; n++) {
+            long due = start + n * intervalNanos;
+            if (due >= end) {
+                return;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            executor.execute(() -> iteration.accept(due));
+        }
+    }
+}
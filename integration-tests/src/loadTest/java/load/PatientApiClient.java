@@ -0,0 +1,110 @@
+package load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The gateway calls made by the load test. Each call blocks its (virtual) thread and records
+ * its outcome into the endpoint's stats; non-2xx responses and I/O failures count as errors.
+ */
+final class PatientApiClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final String baseUri;
+    private final Duration requestTimeout;
+
+    PatientApiClient(String baseUri, Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+        this.baseUri = baseUri;
+        this.requestTimeout = requestTimeout;
+    }
+
+    Optional<String> login(String email, String password, EndpointStats stats, long startNanos) {
+        String body = MAPPER.createObjectNode().put("email", email).put("password", password).toString();
+        return send(post("/auth/login", body), stats, startNanos)
+                .map(json -> json.get("token").asText());
+    }
+
+    Optional<String> createPatient(String token, String email, EndpointStats stats, long startNanos) {
+        return send(post("/api/patients", patientJson("Load Test", email, "2025-02-02"), token), stats, startNanos)
+                .map(json -> json.get("id").asText());
+    }
+
+    boolean listPatients(String token, EndpointStats stats) {
+        HttpRequest request = request("/api/patients?size=50", token).GET().build();
+        return send(request, stats, System.nanoTime()).isPresent();
+    }
+
+    boolean updatePatient(String token, String id, String email, EndpointStats stats) {
+        HttpRequest request = request("/api/patients/" + id, token)
+                .PUT(HttpRequest.BodyPublishers.ofString(patientJson("Load Test Updated", email, null)))
+                .build();
+        return send(request, stats, System.nanoTime()).isPresent();
+    }
+
+    boolean deletePatient(String token, String id, EndpointStats stats) {
+        HttpRequest request = request("/api/patients/" + id, token).DELETE().build();
+        return send(request, stats, System.nanoTime()).isPresent();
+    }
+
+    private Optional<JsonNode> send(HttpRequest request, EndpointStats stats, long startNanos) {
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean success = response.statusCode() / 100 == 2;
+            stats.record(startNanos, success);
+            if (!success) {
+                return Optional.empty();
+            }
+            return Optional.of(response.body().isEmpty() ? MAPPER.nullNode() : MAPPER.readTree(response.body()));
+        } catch (IOException e) {
+            stats.record(startNanos, false);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    private HttpRequest post(String path, String body) {
+        return post(path, body, null);
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        return request(path, token).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUri + path))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private static String patientJson(String name, String email, String registeredDate) {
+        var node = MAPPER.createObjectNode()
+                .put("name", name)
+                .put("email", email)
+                .put("address", "1 Load Street")
+                .put("dateOfBirth", "1990-01-01");
+        if (registeredDate != null) {
+            node.put("registeredDate", registeredDate);
+        }
+        return node.toString();
+    }
+}
@@ -0,0 +1,189 @@
+package load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bytes on the wire and latency of reading the full patient list through the gateway, once as plain
+ * JSON and once with Accept-Encoding: gzip. Seeds load.wire.patients rows through the bulk import if
+ * they are not there yet, then times load.wire.runs full reads of both the paged list
+ * (GET /api/patients, load.wire.page-size per page) and the NDJSON export.
+ * The body sizes are what crossed the socket: java.net.http never inflates a response itself.
+ *
+ * <pre>
+ * ./gradlew wireBenchmark -Pload.start-services=true
+ * ./gradlew wireBenchmark -Pload.start-services=true -Pload.backend-protocols=HTTP11   # gateway to backends over HTTP/1.1
+ * </pre>
+ */
+public final class PatientListWireMain {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<String> ENCODINGS = List.of("identity", "gzip");
+
+    private PatientListWireMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.fromSystemProperties();
+        int patients = Integer.getInteger("load.wire.patients", 50_000);
+        int runs = Integer.getInteger("load.wire.runs", 5);
+        int pageSize = Integer.getInteger("load.wire.page-size", 500);
+        String backendProtocols = System.getProperty("load.backend-protocols", "H2C");
+
+        LocalServices services = config.startServices()
+                ? LocalServices.start(config.servicesDir(), config.reportDir().resolve("logs"),
+                        // pages are fetched back to back by one user, well past its per-client limit
+                        List.of("--gateway.backend.protocols=" + backendProtocols,
+                                "--gateway.rate-limit.patients.replenish-rate=1000",
+                                "--gateway.rate-limit.patients.burst-capacity=1000"))
+                : null;
+        try {
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            String token = login(httpClient, config);
+            seed(httpClient, config, token, patients);
+
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format("%d patients, %d runs, page size %d, gateway to backends %s",
+                    patients, runs, pageSize, services != null ? backendProtocols : "as configured"));
+            lines.add(String.format("%-8s %-9s %6s %12s %12s %10s %10s %10s",
+                    "read", "encoding", "rows", "wire bytes", "json bytes", "p50 ms", "min ms", "max ms"));
+            for (String read : List.of("pages", "export")) {
+                for (String encoding : ENCODINGS) {
+                    Result warmup = read(httpClient, config, token, read, encoding, pageSize);
+                    long[] millis = new long[runs];
+                    for (int i = 0; i < runs; i++) {
+                        long start = System.nanoTime();
+                        read(httpClient, config, token, read, encoding, pageSize);
+                        millis[i] = (System.nanoTime() - start) / 1_000_000;
+                    }
+                    Arrays.sort(millis);
+                    lines.add(String.format("%-8s %-9s %6d %12d %12d %10d %10d %10d", read, encoding, warmup.rows(),
+                            warmup.wireBytes(), warmup.jsonBytes(), millis[runs / 2], millis[0], millis[runs - 1]));
+                }
+            }
+            lines.forEach(System.out::println);
+
+            Files.createDirectories(config.reportDir());
+            Path report = config.reportDir().resolve("patient-list-wire.txt");
+            Files.write(report, lines);
+            System.out.printf("Report written to %s%n", report.toAbsolutePath());
+        } finally {
+            if (services != null) {
+                services.close();
+            }
+        }
+    }
+
+    private record Result(long rows, long wireBytes, long jsonBytes) {
+    }
+
+    private static Result read(HttpClient httpClient, LoadConfig config, String token, String read, String encoding,
+                               int pageSize) throws IOException, InterruptedException {
+        if (read.equals("export")) {
+            HttpResponse<byte[]> response = get(httpClient, config, token, "/api/patients/export", encoding);
+            byte[] json = decode(response);
+            long rows = new String(json, StandardCharsets.UTF_8).lines().filter(line -> !line.isBlank()).count();
+            return new Result(rows, response.body().length, json.length);
+        }
+        long rows = 0;
+        long wireBytes = 0;
+        long jsonBytes = 0;
+        String cursor = null;
+        do {
+            String path = "/api/patients?size=" + pageSize
+                    + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+            HttpResponse<byte[]> response = get(httpClient, config, token, path, encoding);
+            byte[] json = decode(response);
+            JsonNode page = MAPPER.readTree(json);
+            rows += page.get("patients").size();
+            wireBytes += response.body().length;
+            jsonBytes += json.length;
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        return new Result(rows, wireBytes, jsonBytes);
+    }
+
+    private static HttpResponse<byte[]> get(HttpClient httpClient, LoadConfig config, String token, String path,
+                                            String encoding) throws IOException, InterruptedException {
+        // no-cache keeps the gateway's response cache out of the measurement
+        HttpRequest request = HttpRequest.newBuilder(URI.create(config.baseUri() + path))
+                .timeout(config.requestTimeout())
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", encoding)
+                .header("Cache-Control", "no-cache")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode()
+                    + (response.statusCode() == 429 ? ", run the gateway with gateway.rate-limit.enabled=false" : ""));
+        }
+        return response;
+    }
+
+    private static byte[] decode(HttpResponse<byte[]> response) throws IOException {
+        if (!response.headers().firstValue("Content-Encoding").orElse("").equals("gzip")) {
+            return response.body();
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String login(HttpClient httpClient, LoadConfig config) throws IOException, InterruptedException {
+        String body = MAPPER.createObjectNode().put("email", config.email()).put("password", config.password()).toString();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(config.baseUri() + "/auth/login"))
+                .timeout(config.requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login as " + config.email() + " failed at " + config.baseUri());
+        }
+        return MAPPER.readTree(response.body()).get("token").asText();
+    }
+
+    // rows are wire-<n>@bench.test, so a second run against the same database imports nothing new
+    private static void seed(HttpClient httpClient, LoadConfig config, String token, int patients)
+            throws IOException, InterruptedException {
+        StringBuilder ndjson = new StringBuilder(patients * 160);
+        for (int i = 0; i < patients; i++) {
+            ndjson.append(MAPPER.writeValueAsString(Map.of(
+                    "name", "Wire Benchmark Patient " + i,
+                    "email", "wire-" + i + "@bench.test",
+                    "address", i + " Benchmark Avenue, Springfield",
+                    "dateOfBirth", "1980-01-01",
+                    "registeredDate", "2024-06-01"))).append('\n');
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(config.baseUri() + "/api/patients/import"))
+                .timeout(config.requestTimeout().multipliedBy(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Import returned " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode report = MAPPER.readTree(response.body());
+        System.out.printf("Seeded %d patients, %d already there%n", report.get("created").asLong(), report.get("rejected").asLong());
+    }
+}
@@ -0,0 +1,50 @@
+package io.xcodebn.patientservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.xcodebn.patientservice.dto.PatientResponseDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for single patient lookups.
+ * Bounded by size (cold entries are evicted first) and by a write ttl, so an invalidation that never
+ * arrives only leaves a replica stale for at most that long.
+ */
+@Component
+public class PatientCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, PatientResponseDTO> cache;
+
+    public PatientCache(
+            @Value("${patients.cache.enabled:true}") boolean enabled,
+            @Value("${patients.cache.max-size:10000}") long maxSize,
+            @Value("${patients.cache.ttl:PT5M}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // exposes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "patients");
+    }
+
+    // loader runs at most once per id under concurrent misses; if it throws nothing is cached
+    public PatientResponseDTO get(UUID id, Function<UUID, PatientResponseDTO> loader) {
+        return enabled ? cache.get(id, loader) : loader.apply(id);
+    }
+
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+    }
+}
@@ -0,0 +1,69 @@
+package io.xcodebn.patientservice.config;
+
+import com.google.protobuf.Message;
+import io.xcodebn.patientservice.dto.PatientPageDTO;
+import io.xcodebn.patientservice.dto.PatientResponseDTO;
+import io.xcodebn.patientservice.dto.PatientSearchResultDTO;
+import io.xcodebn.patientservice.mapper.PatientProtoMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Writes the patient response DTOs as patients.api protobuf messages when the client sends
+ * Accept: application/x-protobuf, so controllers keep returning the same types for JSON and protobuf.
+ * Write only, request bodies stay JSON; error bodies are JSON too, see GlobalExceptionHandler.
+ */
+public class PatientProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+    // same header Spring's ProtobufHttpMessageConverter sets, tells the client which message to parse
+    private static final String MESSAGE_HEADER = "X-Protobuf-Message";
+
+    private static final Set<Class<?>> SUPPORTED_TYPES = Set.of(
+            PatientResponseDTO.class, PatientPageDTO.class, PatientSearchResultDTO.class);
+
+    public PatientProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SUPPORTED_TYPES.contains(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        Message message = toMessage(body);
+        outputMessage.getHeaders().set(MESSAGE_HEADER, message.getDescriptorForType().getFullName());
+        // memoized and needed by writeTo anyway; lets Tomcat apply server.compression.min-response-size
+        outputMessage.getHeaders().setContentLength(message.getSerializedSize());
+        message.writeTo(outputMessage.getBody());
+    }
+
+    private static Message toMessage(Object body) {
+        return switch (body) {
+            case PatientResponseDTO patient -> PatientProtoMapper.toProto(patient);
+            case PatientPageDTO page -> PatientProtoMapper.toProto(page);
+            case PatientSearchResultDTO result -> PatientProtoMapper.toProto(result);
+            default -> throw new IllegalArgumentException("No protobuf message for " + body.getClass());
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package io.xcodebn.patientservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class ProtobufConfig implements WebMvcConfigurer {
+
+    // appended after Jackson rather than registered as a bean, which Boot would put first:
+    // a client sending Accept: */* or nothing at all keeps getting JSON
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new PatientProtobufHttpMessageConverter());
+    }
+}
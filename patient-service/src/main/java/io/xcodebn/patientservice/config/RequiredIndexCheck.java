@@ -0,0 +1,80 @@
+package io.xcodebn.patientservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Refuses to start when an index the repository queries depend on is missing, e.g. after a migration
+ * was skipped or an index was dropped by hand. Without it the queries still work, just as sequential
+ * scans, which only shows up under production load.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "schema.index-check.enabled", havingValue = "true", matchIfMissing = true)
+public class RequiredIndexCheck implements ApplicationRunner {
+
+    // table -> indexes created by db/migration
+    private static final Map<String, List<String>> REQUIRED_INDEXES = Map.of(
+            "patient", List.of(
+                    "idx_patient_registered_date_id",
+                    "idx_patient_lower_name",
+                    "idx_patient_lower_email",
+                    "idx_patient_date_of_birth"),
+            "patient_outbox", List.of("idx_patient_outbox_created_at"),
+            "patient_billing_account", List.of("idx_patient_billing_account_status")
+    );
+
+    private final DataSource dataSource;
+
+    public RequiredIndexCheck(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, List<String>> table : REQUIRED_INDEXES.entrySet()) {
+                Set<String> present = indexNames(metaData, connection.getSchema(), table.getKey());
+                table.getValue().stream()
+                        .filter(index -> !present.contains(index))
+                        .forEach(index -> missing.add(table.getKey() + "." + index));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing database indexes " + missing
+                    + ", run the db/migration scripts or set schema.index-check.enabled=false");
+        }
+        log.info("All {} required indexes present", REQUIRED_INDEXES.values().stream().mapToInt(List::size).sum());
+    }
+
+    private static Set<String> indexNames(DatabaseMetaData metaData, String schema, String table) throws SQLException {
+        String storedTable = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Set<String> names = new HashSet<>();
+        try (ResultSet indexes = metaData.getIndexInfo(null, schema, storedTable, false, true)) {
+            while (indexes.next()) {
+                String name = indexes.getString("INDEX_NAME");
+                if (name != null) {
+                    names.add(name.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return names;
+    }
+}
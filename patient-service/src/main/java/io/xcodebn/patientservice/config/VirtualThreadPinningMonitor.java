@@ -0,0 +1,75 @@
+package io.xcodebn.patientservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier, e.g. inside a synchronized block
+ * of a JDBC driver or client library. Streams the JFR jdk.VirtualThreadPinned event, counts every
+ * occurrence in jvm.threads.virtual.pinned and logs each distinct stack once.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final int LOGGED_FRAMES = 12;
+
+    private final RecordingStream recordingStream;
+    private final Counter pinned;
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+
+    public VirtualThreadPinningMonitor(
+            @Value("${virtual-threads.pinning.threshold:PT0.02S}") Duration threshold,
+            MeterRegistry meterRegistry
+    ) {
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned for longer than the threshold")
+                .register(meterRegistry);
+
+        recordingStream = new RecordingStream();
+        recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recordingStream.startAsync();
+        log.info("Virtual threads enabled, reporting pinning longer than {}", threshold);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return;
+        }
+        String stack = stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::format)
+                .collect(Collectors.joining("\n\tat "));
+        if (reportedStacks.add(stack)) {
+            log.warn("Virtual thread pinned for {}ms at\n\tat {}", event.getDuration().toMillis(), stack);
+        }
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @PreDestroy
+    public void close() {
+        recordingStream.close();
+    }
+}
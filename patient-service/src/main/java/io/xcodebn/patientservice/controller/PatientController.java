@@ -3,17 +3,28 @@ package io.xcodebn.patientservice.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import io.xcodebn.patientservice.config.PatientProtobufHttpMessageConverter;
+import io.xcodebn.patientservice.dto.BulkImportReportDTO;
+import io.xcodebn.patientservice.dto.PatientPageDTO;
 import io.xcodebn.patientservice.dto.PatientRequestDTO;
 import io.xcodebn.patientservice.dto.PatientResponseDTO;
+import io.xcodebn.patientservice.dto.PatientSearchCriteria;
+import io.xcodebn.patientservice.dto.PatientSearchResultDTO;
 import io.xcodebn.patientservice.dto.validators.CreatePatientValidationGroup;
+import io.xcodebn.patientservice.service.PatientImportService;
 import io.xcodebn.patientservice.service.PatientService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.groups.Default;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Tag(name = "Patient",description = "API for managing patients")
@@ -23,16 +34,57 @@ public class PatientController {
 
     private final PatientService patientService;
 
+    private final PatientImportService patientImportService;
 
-    public PatientController(PatientService patientService) {
+
+    public PatientController(PatientService patientService, PatientImportService patientImportService) {
         this.patientService = patientService;
+        this.patientImportService = patientImportService;
     }
 
 
     @GetMapping
-    @Operation(summary = "Get Patients")
-    public ResponseEntity<List<PatientResponseDTO>> getPatients(){
-        return ResponseEntity.ok().body(patientService.getPatients());
+    @Operation(summary = "Get Patients", description = "Keyset paginated, pass nextCursor back to get the following page")
+    public ResponseEntity<PatientPageDTO> getPatients(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ){
+        return ResponseEntity.ok().body(patientService.getPatients(cursor, size));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search Patients", description = "Name prefix and email are case-insensitive, the date of birth range is inclusive (yyyy-MM-dd)")
+    public ResponseEntity<PatientSearchResultDTO> searchPatients(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+            @RequestParam(defaultValue = "20") int limit
+    ){
+        PatientSearchCriteria criteria = new PatientSearchCriteria(blankToNull(name), blankToNull(email), bornFrom, bornTo);
+        return ResponseEntity.ok(patientService.searchPatients(criteria, limit));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all patients as NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportPatients(){
+        StreamingResponseBody body = patientService::exportPatients;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+
+    // analytics-service reads this on startup, so its aggregates cover patients whose events are gone from the topic
+    @GetMapping(value = "/snapshot", produces = PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE)
+    @Operation(summary = "Export all patients as length-delimited PatientEvent messages")
+    public ResponseEntity<StreamingResponseBody> exportSnapshot(){
+        StreamingResponseBody body = patientService::exportSnapshot;
+        return ResponseEntity.ok().contentType(PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF).body(body);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get Patient")
+    public ResponseEntity<PatientResponseDTO> getPatient(@PathVariable UUID id){
+        return ResponseEntity.ok(patientService.getPatient(id));
     }
 
 
@@ -47,6 +99,15 @@ public class PatientController {
 
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @Operation(summary = "Bulk import patients", description = "NDJSON, or CSV with header name,email,address,dateOfBirth,registeredDate in any order")
+    public ResponseEntity<BulkImportReportDTO> importPatients(HttpServletRequest request) throws IOException {
+        PatientImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? PatientImportService.Format.NDJSON
+                : PatientImportService.Format.CSV;
+        return ResponseEntity.ok(patientImportService.importPatients(request.getInputStream(), format));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update Patient")
     public ResponseEntity<PatientResponseDTO> updatePatient(
@@ -66,4 +127,8 @@ public class PatientController {
         patientService.deletePatient(id);
        return ResponseEntity.noContent().build();
     }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
 }
@@ -0,0 +1,21 @@
+package io.xcodebn.patientservice.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BulkImportReportDTO {
+
+    private long created;
+    private long rejected;
+    // the rejected rows, by line
+    private List<BulkImportRowDTO> rows;
+}
@@ -0,0 +1,21 @@
+package io.xcodebn.patientservice.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BulkImportRowDTO {
+
+    // 1-based line number in the uploaded file
+    private long line;
+    private String email;
+    // DUPLICATE, INVALID or FAILED, created rows are only counted
+    private String status;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package io.xcodebn.patientservice.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class PatientPageDTO {
+
+    private List<PatientSummary> patients;
+    // opaque keyset cursor for the next page, null on the last page
+    private String nextCursor;
+}
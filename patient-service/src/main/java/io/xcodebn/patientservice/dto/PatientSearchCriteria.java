@@ -0,0 +1,14 @@
+package io.xcodebn.patientservice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Filters for GET /patients/search, null means not filtered. Name is a case-insensitive prefix,
+ * email a case-insensitive exact match and the date of birth range is inclusive.
+ */
+public record PatientSearchCriteria(String namePrefix, String email, LocalDate bornFrom, LocalDate bornTo) {
+
+    public boolean isEmpty() {
+        return namePrefix == null && email == null && bornFrom == null && bornTo == null;
+    }
+}
@@ -0,0 +1,20 @@
+package io.xcodebn.patientservice.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class PatientSearchResultDTO {
+
+    private List<PatientResponseDTO> patients;
+    // more patients match than the limit allowed, narrow the criteria
+    private boolean truncated;
+}
@@ -0,0 +1,20 @@
+package io.xcodebn.patientservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Read-only list row, built by a JPQL constructor expression so no Patient entity is hydrated or tracked.
+ * Serializes to the same JSON as PatientResponseDTO; registeredDate is only there for the page cursor.
+ */
+public record PatientSummary(
+        UUID id,
+        String email,
+        String name,
+        String address,
+        LocalDate dateOfBirth,
+        @JsonIgnore LocalDate registeredDate
+) {
+}
@@ -0,0 +1,11 @@
+package io.xcodebn.patientservice.exception;
+
+/**
+ * Thrown instead of calling billing-service while the circuit is open. The account request is marked
+ * UNSENT and BillingAccountService sends it again once billing-service recovers.
+ */
+public class BillingCircuitOpenException extends RuntimeException {
+    public BillingCircuitOpenException() {
+        super("Billing circuit open, account request queued for retry");
+    }
+}
@@ -0,0 +1,11 @@
+package io.xcodebn.patientservice.exception;
+
+/**
+ * A billing call failed before its request was handed to a connection, so billing-service cannot have
+ * created the account. Such requests are marked UNSENT and BillingAccountService sends them again.
+ */
+public class BillingNotSentException extends RuntimeException {
+    public BillingNotSentException(Throwable cause) {
+        super("Billing request never sent: " + cause.getMessage(), cause);
+    }
+}
@@ -1,26 +1,55 @@
 package io.xcodebn.patientservice.exception;
 
 
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.spi.ViolatedConstraintNameExtractor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
+// error bodies are always JSON, with the content type preset so a client that only accepts
+// application/x-protobuf still gets the error instead of a 406 from content negotiation
 @Slf4j
 @ControllerAdvice
 public class GlobalExceptionHandler {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final DataSource dataSource;
+    private final ViolatedConstraintNameExtractor constraintNameExtractor;
+    private volatile Set<String> emailUniqueIndexes;
+
+    public GlobalExceptionHandler(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+        this.constraintNameExtractor = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getViolatedConstraintNameExtractor();
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String,String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
 
 
         Map<String,String> errors = new HashMap<>();
         ex.getBindingResult().getFieldErrors().forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
-        return ResponseEntity.badRequest().body(errors);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errors);
     }
 
     @ExceptionHandler(EmailAlreadyExistsException.class)
@@ -30,7 +59,64 @@ public class GlobalExceptionHandler {
         errors.put("email", ex.getMessage());
         errors.put("message", "Email address already exists");
         errors.put("status", HttpStatus.CONFLICT.toString());
-        return ResponseEntity.badRequest().body(errors);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errors);
+    }
+
+    // writes rely on the unique index on patient.email instead of checking first
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String,String>> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        if (isEmailUniqueViolation(ex)) {
+            return handleEmailAlreadyExistsException(
+                    new EmailAlreadyExistsException("A patient of this email already exists"));
+        }
+        log.warn("Data integrity violation {}", ex.getMostSpecificCause().getMessage());
+        Map<String,String> errors = new HashMap<>();
+        errors.put("message", "Conflicting data");
+        errors.put("status", HttpStatus.CONFLICT.toString());
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(MediaType.APPLICATION_JSON).body(errors);
+    }
+
+    private boolean isEmailUniqueViolation(DataIntegrityViolationException ex) {
+        if (!(ex.getMostSpecificCause() instanceof SQLException sqlException)
+                || !UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+            return false;
+        }
+        // JPA writes carry Hibernate's exception, the JdbcTemplate update only the SQLException
+        String constraint = ex.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : constraintNameExtractor.extractConstraintName(sqlException);
+        if (constraint == null) {
+            return false;
+        }
+        // H2 reports the index schema-qualified
+        String name = constraint.substring(constraint.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return emailUniqueIndexes().contains(name);
+    }
+
+    // Postgres names it patient_email_key, H2 generates a CONSTRAINT_INDEX_n name, so both are read from the catalog
+    private Set<String> emailUniqueIndexes() {
+        Set<String> names = emailUniqueIndexes;
+        if (names != null) {
+            return names;
+        }
+        names = new HashSet<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? "PATIENT" : "patient";
+            try (ResultSet indexes = metaData.getIndexInfo(null, connection.getSchema(), table, true, false)) {
+                while (indexes.next()) {
+                    String index = indexes.getString("INDEX_NAME");
+                    if (index != null && "email".equalsIgnoreCase(indexes.getString("COLUMN_NAME"))) {
+                        names.add(index.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the unique indexes on patient.email: {}", e.getMessage());
+            return Set.of();
+        }
+        emailUniqueIndexes = names;
+        return names;
     }
 
     @ExceptionHandler
@@ -40,7 +126,38 @@ public class GlobalExceptionHandler {
         errors.put("patientNotFoundException", ex.getMessage());
         errors.put("message", "Patient not found");
         errors.put("status", HttpStatus.NOT_FOUND.toString());
-        return ResponseEntity.badRequest().body(errors);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errors);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String,String>> handleInvalidCursorException(InvalidCursorException ex) {
+        log.warn("Invalid pagination cursor {}", ex.getMessage());
+        Map<String,String> errors = new HashMap<>();
+        errors.put("cursor", ex.getMessage());
+        errors.put("message", "Invalid pagination cursor");
+        errors.put("status", HttpStatus.BAD_REQUEST.toString());
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errors);
+    }
+
+    @ExceptionHandler(InvalidSearchCriteriaException.class)
+    public ResponseEntity<Map<String,String>> handleInvalidSearchCriteriaException(InvalidSearchCriteriaException ex) {
+        log.warn("Invalid patient search {}", ex.getMessage());
+        Map<String,String> errors = new HashMap<>();
+        errors.put("search", ex.getMessage());
+        errors.put("message", "Invalid search criteria");
+        errors.put("status", HttpStatus.BAD_REQUEST.toString());
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errors);
+    }
+
+    // nothing is imported when the CSV header does not name the expected columns
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<Map<String,String>> handleInvalidImportFileException(InvalidImportFileException ex) {
+        log.warn("Invalid import file {}", ex.getMessage());
+        Map<String,String> errors = new HashMap<>();
+        errors.put("file", ex.getMessage());
+        errors.put("message", "Invalid import file");
+        errors.put("status", HttpStatus.BAD_REQUEST.toString());
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errors);
     }
 
 }
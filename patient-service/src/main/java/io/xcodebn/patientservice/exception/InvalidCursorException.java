@@ -0,0 +1,7 @@
+package io.xcodebn.patientservice.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package io.xcodebn.patientservice.exception;
+
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package io.xcodebn.patientservice.exception;
+
+public class InvalidSearchCriteriaException extends RuntimeException {
+    public InvalidSearchCriteriaException(String message) {
+        super(message);
+    }
+}
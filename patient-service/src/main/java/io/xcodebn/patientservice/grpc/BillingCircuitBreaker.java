@@ -0,0 +1,212 @@
+package io.xcodebn.patientservice.grpc;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count based circuit breaker around billing-service calls. CLOSED tracks the outcome of the last
+ * sliding-window-size calls and opens once failure-rate-threshold percent of them failed. OPEN rejects
+ * every call for open-duration, then HALF_OPEN lets half-open-calls trial calls through: all of them
+ * succeeding closes the circuit again, any failure reopens it.
+ * Only outcomes that say billing-service is unhealthy count as failures; a business error such as
+ * INVALID_ARGUMENT means it answered.
+ */
+@Slf4j
+@Component
+public class BillingCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Set<Status.Code> FAILURES = EnumSet.of(
+            Status.Code.UNAVAILABLE,
+            Status.Code.DEADLINE_EXCEEDED,
+            Status.Code.RESOURCE_EXHAUSTED,
+            Status.Code.INTERNAL,
+            Status.Code.UNKNOWN
+    );
+
+    private final boolean enabled;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // ring buffer of the last calls while CLOSED, true = failed
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter notPermitted;
+
+    public BillingCircuitBreaker(
+            @Value("${billing.client.circuit-breaker.enabled:true}") boolean enabled,
+            @Value("${billing.client.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${billing.client.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${billing.client.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${billing.client.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+            @Value("${billing.client.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[slidingWindowSize];
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.meterRegistry = meterRegistry;
+        this.successes = calls(meterRegistry, "success");
+        this.failures = calls(meterRegistry, "failure");
+        this.notPermitted = calls(meterRegistry, "not_permitted");
+    }
+
+    // one gauge per state, 1 for the current one, so dashboards can stack or alert on billing.circuit.state{state=open};
+    // registered once constructed since the gauges hold on to this breaker
+    @PostConstruct
+    void registerStateGauges() {
+        for (State s : State.values()) {
+            Gauge.builder("billing.circuit.state", this, breaker -> breaker.state == s ? 1 : 0)
+                    .tag("state", s.name().toLowerCase(Locale.ROOT))
+                    .description("Billing circuit breaker state, 1 for the current one")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("billing.circuit.calls")
+                .tag("outcome", outcome)
+                .description("Billing calls by circuit breaker outcome")
+                .register(meterRegistry);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Whether a call may go out now. Every permitted call must be followed by onSuccess or onError,
+     * otherwise a HALF_OPEN circuit runs out of trial calls and never closes.
+     */
+    public boolean tryAcquirePermission() {
+        if (!enabled) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+                transitionTo(State.HALF_OPEN);
+            }
+            boolean permitted = switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (halfOpenPermits == 0) {
+                        yield false;
+                    }
+                    halfOpenPermits--;
+                    yield true;
+                }
+            };
+            if (!permitted) {
+                notPermitted.increment();
+            }
+            return permitted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // cheap check for callers that would otherwise queue up work only to have it rejected
+    public boolean isCallPermitted() {
+        return !enabled || state != State.OPEN || System.nanoTime() - openedAt >= openDurationNanos;
+    }
+
+    public void onSuccess() {
+        record(false);
+    }
+
+    public void onError(Throwable error) {
+        record(isOutage(error));
+    }
+
+    // billing-service unreachable, overloaded or broken, as opposed to rejecting this particular request
+    public static boolean isOutage(Throwable error) {
+        return FAILURES.contains(Status.fromThrowable(error).getCode());
+    }
+
+    private void record(boolean failed) {
+        (failed ? failures : successes).increment();
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED -> {
+                    if (windowCount == window.length) {
+                        windowFailures -= window[windowNext] ? 1 : 0;
+                    } else {
+                        windowCount++;
+                    }
+                    window[windowNext] = failed;
+                    windowFailures += failed ? 1 : 0;
+                    windowNext = (windowNext + 1) % window.length;
+                    if (windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+                        transitionTo(State.OPEN);
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (failed) {
+                        transitionTo(State.OPEN);
+                    } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                        transitionTo(State.CLOSED);
+                    }
+                }
+                // calls started before the circuit opened, they change nothing
+                case OPEN -> {
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // caller holds lock
+    private void transitionTo(State next) {
+        log.warn("Billing circuit {} -> {}{}", state, next,
+                state == State.CLOSED ? " after " + windowFailures + " failures in the last " + windowCount + " calls" : "");
+        state = next;
+        switch (next) {
+            case OPEN -> openedAt = System.nanoTime();
+            case HALF_OPEN -> {
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+            }
+            case CLOSED -> {
+                windowNext = 0;
+                windowCount = 0;
+                windowFailures = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package io.xcodebn.patientservice.grpc;
+
+public enum BillingClientMode {
+    // call billing-service on the request thread and wait for the account
+    BLOCKING,
+    // return the patient once persisted, create the account in the background with retries
+    ASYNC
+}
@@ -1,43 +1,442 @@
 package io.xcodebn.patientservice.grpc;
 
 
+import billing.BillingAccountResult;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.xcodebn.patientservice.exception.BillingCircuitOpenException;
+import io.xcodebn.patientservice.exception.BillingNotSentException;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
 @Slf4j
 @Service
 public class BillingServiceGrpcClient {
+
+    private final ManagedChannel channel;
     private final BillingServiceGrpc.BillingServiceBlockingStub blockingStub;
+    private final BillingServiceGrpc.BillingServiceFutureStub futureStub;
+    private final BillingServiceGrpc.BillingServiceStub asyncStub;
+
+    private final BillingCircuitBreaker circuitBreaker;
+    private final Duration deadline;
+    private final Semaphore inFlight;
+    // calls waiting for an in-flight slot, started in arrival order as slots free up; at most maxQueued of them
+    private final Queue<PendingAccount> waitingForSlot = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxQueued;
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+
+    // bulk batching: flushed when batchSize requests are queued or batchWindow elapsed since the first one
+    private final int batchSize;
+    private final Duration batchWindow;
+    private final Duration batchDeadline;
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private List<PendingAccount> pendingBatch = new ArrayList<>();
+    private ScheduledFuture<?> pendingFlush;
 
 
 
     // local host
     public BillingServiceGrpcClient(
             @Value("${billing.service.address:localhost}") String serverAddress,
-            @Value("${billing.service.grpc.port:9001}") int serverPort
+            @Value("${billing.service.grpc.port:9001}") int serverPort,
+            // dns:///host:port resolves every replica behind the name, round_robin spreads calls over them
+            @Value("${billing.service.target:}") String target,
+            @Value("${billing.client.load-balancing-policy:round_robin}") String loadBalancingPolicy,
+            @Value("${billing.client.keep-alive-time:PT60S}") Duration keepAliveTime,
+            @Value("${billing.client.keep-alive-timeout:PT10S}") Duration keepAliveTimeout,
+            @Value("${billing.client.deadline:PT2S}") Duration deadline,
+            @Value("${billing.client.max-in-flight:64}") int maxInFlight,
+            @Value("${billing.client.max-queued:1000}") int maxQueued,
+            @Value("${billing.client.max-attempts:3}") int maxAttempts,
+            @Value("${billing.client.initial-backoff:PT0.2S}") Duration initialBackoff,
+            @Value("${billing.client.max-backoff:PT1S}") Duration maxBackoff,
+            @Value("${billing.client.batch.size:500}") int batchSize,
+            @Value("${billing.client.batch.window:PT0.05S}") Duration batchWindow,
+            @Value("${billing.client.batch.deadline:PT30S}") Duration batchDeadline,
+            BillingCircuitBreaker circuitBreaker
     ){
 
         log.info("Creating grpc service client");
-        log.info("Connecting to grpc billing server at {}:{}", serverAddress, serverPort);
+        String resolvedTarget = target.isBlank() ? "dns:///" + serverAddress + ":" + serverPort : target;
+        log.info("Connecting to grpc billing server at {} with {}", resolvedTarget, loadBalancingPolicy);
 
 
-        ManagedChannel channel = ManagedChannelBuilder.forAddress(serverAddress,serverPort).usePlaintext().build();
+        channel = ManagedChannelBuilder.forTarget(resolvedTarget)
+                .usePlaintext()
+                .defaultLoadBalancingPolicy(loadBalancingPolicy)
+                // detects a dead connection within keep-alive-time + keep-alive-timeout instead of at the deadline;
+                // billing-service must permit pings this often (grpc.server.permit-keep-alive-time)
+                .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(keepAliveTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .defaultServiceConfig(serviceConfig(maxAttempts, initialBackoff, maxBackoff))
+                .enableRetry()
+                .build();
         blockingStub = BillingServiceGrpc.newBlockingStub(channel);
+        futureStub = BillingServiceGrpc.newFutureStub(channel);
+        asyncStub = BillingServiceGrpc.newStub(channel);
+
+        this.circuitBreaker = circuitBreaker;
+        this.deadline = deadline;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxQueued = maxQueued;
+        this.batchSize = batchSize;
+        this.batchWindow = batchWindow;
+        this.batchDeadline = batchDeadline;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "billing-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
+    /**
+     * Retries of the unary call are done by the channel, inside the call's deadline: UNAVAILABLE and
+     * RESOURCE_EXHAUSTED up to max-attempts with exponential backoff. DEADLINE_EXCEEDED is not retried,
+     * CreateBillingAccount is not idempotent and billing-service may already have created the account.
+     * The streaming bulk call is not retried either, billing-service may already have created part of the batch.
+     */
+    private static Map<String, Object> serviceConfig(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        Map<String, Object> retryPolicy = Map.of(
+                "maxAttempts", (double) maxAttempts,
+                "initialBackoff", initialBackoff.toMillis() / 1000.0 + "s",
+                "maxBackoff", maxBackoff.toMillis() / 1000.0 + "s",
+                "backoffMultiplier", 2.0,
+                "retryableStatusCodes", List.of("UNAVAILABLE", "RESOURCE_EXHAUSTED"));
+        Map<String, Object> createBillingAccount = Map.of(
+                "name", List.of(Map.of("service", BillingServiceGrpc.SERVICE_NAME, "method", "CreateBillingAccount")),
+                "retryPolicy", retryPolicy);
+        return Map.of("methodConfig", List.of(createBillingAccount));
+    }
+
+    public boolean isCallPermitted() {
+        return circuitBreaker.isCallPermitted();
     }
 
     public BillingResponse createBillingAccount(String patientId,String name , String email){
 
-        BillingRequest  request =  BillingRequest.newBuilder().setName(name).setEmail(email).build();
+        BillingRequest  request =  buildRequest(patientId, name, email);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new BillingCircuitOpenException();
+        }
 
-       BillingResponse response =  blockingStub.createBillingAccount(request);
+       SendTracker tracker = new SendTracker();
+       BillingResponse response;
+       try {
+           response = blockingStub
+                   .withInterceptors(tracker)
+                   .withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                   .createBillingAccount(request);
+       } catch (RuntimeException e) {
+           circuitBreaker.onError(e);
+           throw tracker.isSent() ? e : new BillingNotSentException(e);
+       }
+       circuitBreaker.onSuccess();
        log.info("Recieved response from billing service {}",response);
        return response;
     }
+
+    /**
+     * Non-blocking variant: never holds the caller's thread and caps concurrent calls at billing.client.max-in-flight,
+     * queueing up to billing.client.max-queued more until a slot frees up. Fails with BillingCircuitOpenException
+     * while the circuit is open, and with BillingNotSentException when the queue is full or the call failed before
+     * its request left this process.
+     */
+    public CompletableFuture<BillingResponse> createBillingAccountAsync(String patientId, String name, String email) {
+        // a slow billing-service must not pile requests up on the heap, where a restart would lose them unsent
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return CompletableFuture.failedFuture(new BillingNotSentException(Status.RESOURCE_EXHAUSTED
+                    .withDescription(maxQueued + " billing calls already waiting for a slot")
+                    .asRuntimeException()));
+        }
+        CompletableFuture<BillingResponse> result = new CompletableFuture<>();
+        waitingForSlot.add(new PendingAccount(buildRequest(patientId, name, email), result));
+        startWaiting();
+        return result;
+    }
+
+    // runs with an in-flight slot held, every path gives it back through releaseSlot
+    private void call(BillingRequest request, CompletableFuture<BillingResponse> result) {
+        // only after the slot, a HALF_OPEN trial permit must always end in an outcome
+        if (!circuitBreaker.tryAcquirePermission()) {
+            releaseSlot();
+            result.completeExceptionally(new BillingCircuitOpenException());
+            return;
+        }
+
+        SendTracker tracker = new SendTracker();
+        ListenableFuture<BillingResponse> call = futureStub
+                .withInterceptors(tracker)
+                .withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                .createBillingAccount(request);
+
+        // runs on a gRPC thread: callers must not block in what they chain onto the result
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(BillingResponse response) {
+                releaseSlot();
+                circuitBreaker.onSuccess();
+                result.complete(response);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                releaseSlot();
+                circuitBreaker.onError(t);
+                result.completeExceptionally(tracker.isSent() ? t : new BillingNotSentException(t));
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void releaseSlot() {
+        inFlight.release();
+        startWaiting();
+    }
+
+    /**
+     * Starts queued calls while slots are free. Only one thread drains at a time, a call that finishes
+     * inline (or is refused by the circuit) asks for another pass instead of recursing into this one.
+     */
+    private void startWaiting() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (!waitingForSlot.isEmpty() && inFlight.tryAcquire()) {
+                PendingAccount next = waitingForSlot.poll();
+                if (next == null) {
+                    inFlight.release();
+                } else {
+                    queued.decrementAndGet();
+                    call(next.request(), next.result());
+                }
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Queues the request for the bulk CreateBillingAccounts stream instead of making a unary call.
+     * The future completes when the result carrying this patientId comes back.
+     */
+    public CompletableFuture<BillingResponse> submitToBatch(String patientId, String name, String email) {
+        PendingAccount pending = new PendingAccount(buildRequest(patientId, name, email), new CompletableFuture<>());
+        List<PendingAccount> full = null;
+
+        batchLock.lock();
+        try {
+            pendingBatch.add(pending);
+            if (pendingBatch.size() >= batchSize) {
+                full = takeBatch();
+            } else if (pendingFlush == null) {
+                pendingFlush = scheduler.schedule(this::flushBatch, batchWindow.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            batchLock.unlock();
+        }
+
+        if (full != null) {
+            sendBatch(full);
+        }
+        return pending.result();
+    }
+
+    public void flushBatch() {
+        List<PendingAccount> batch;
+        batchLock.lock();
+        try {
+            batch = takeBatch();
+        } finally {
+            batchLock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            sendBatch(batch);
+        }
+    }
+
+    // caller holds batchLock
+    private List<PendingAccount> takeBatch() {
+        List<PendingAccount> batch = pendingBatch;
+        pendingBatch = new ArrayList<>();
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        return batch;
+    }
+
+    private void sendBatch(List<PendingAccount> batch) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            BillingCircuitOpenException open = new BillingCircuitOpenException();
+            batch.forEach(pending -> pending.result().completeExceptionally(open));
+            return;
+        }
+        // results come back keyed by patientId, so a patient queued twice is sent once and both callers get its result
+        Map<String, CompletableFuture<BillingResponse>> byPatientId = new ConcurrentHashMap<>(batch.size() * 2);
+        List<BillingRequest> requests = new ArrayList<>(batch.size());
+        for (PendingAccount pending : batch) {
+            CompletableFuture<BillingResponse> first = byPatientId.putIfAbsent(pending.request().getPatientId(), pending.result());
+            if (first == null) {
+                requests.add(pending.request());
+            } else {
+                first.whenComplete((response, error) -> {
+                    if (error == null) {
+                        pending.result().complete(response);
+                    } else {
+                        pending.result().completeExceptionally(error);
+                    }
+                });
+            }
+        }
+        Iterator<BillingRequest> toSend = requests.iterator();
+        SendTracker tracker = new SendTracker();
+
+        asyncStub.withInterceptors(tracker)
+                .withDeadlineAfter(batchDeadline.toMillis(), TimeUnit.MILLISECONDS)
+                .createBillingAccounts(new ClientResponseObserver<BillingRequest, BillingAccountResult>() {
+                    private boolean requestsCompleted;
+
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<BillingRequest> requestStream) {
+                        // only write while the transport can take more, onReady fires again once it drains
+                        requestStream.setOnReadyHandler(() -> {
+                            while (requestStream.isReady() && toSend.hasNext()) {
+                                requestStream.onNext(toSend.next());
+                            }
+                            if (!toSend.hasNext() && !requestsCompleted) {
+                                requestsCompleted = true;
+                                requestStream.onCompleted();
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onNext(BillingAccountResult result) {
+                        CompletableFuture<BillingResponse> future = byPatientId.remove(result.getPatientId());
+                        if (future == null) {
+                            log.warn("Billing result for unknown patient {}", result.getPatientId());
+                        } else if (!result.getError().isEmpty()) {
+                            future.completeExceptionally(new IllegalStateException(result.getError()));
+                        } else {
+                            future.complete(BillingResponse.newBuilder()
+                                    .setAccountId(result.getAccountId())
+                                    .setStatus(result.getStatus())
+                                    .build());
+                        }
+                    }
+
+                    // the whole stream is one call for the circuit breaker, per patient errors are business outcomes.
+                    // Once any request went out the remaining ones may have too, so only a stream that never
+                    // sent anything counts as not sent
+                    @Override
+                    public void onError(Throwable t) {
+                        circuitBreaker.onError(t);
+                        failRemaining(tracker.isSent() ? t : new BillingNotSentException(t));
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        circuitBreaker.onSuccess();
+                        failRemaining(Status.INTERNAL.withDescription("No billing result returned").asRuntimeException());
+                    }
+
+                    private void failRemaining(Throwable t) {
+                        byPatientId.values().forEach(future -> future.completeExceptionally(t));
+                        byPatientId.clear();
+                    }
+                });
+    }
+
+    private static BillingRequest buildRequest(String patientId, String name, String email) {
+        return BillingRequest.newBuilder()
+                .setPatientId(patientId)
+                .setName(name)
+                .setEmail(email)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // still waiting for a slot, so never sent: marked UNSENT and sent again after the restart
+        PendingAccount waiting;
+        while ((waiting = waitingForSlot.poll()) != null) {
+            waiting.result().completeExceptionally(new BillingNotSentException(
+                    Status.CANCELLED.withDescription("patient-service shutting down").asRuntimeException()));
+        }
+        flushBatch();
+        scheduler.shutdown();
+        channel.shutdown();
+    }
+
+    private record PendingAccount(BillingRequest request, CompletableFuture<BillingResponse> result) {
+    }
+
+    /**
+     * Records whether a call handed a request message to a transport stream, on any attempt of a retried
+     * call. Until it did, billing-service cannot have seen the request, whatever status the call failed with.
+     */
+    private static final class SendTracker extends ClientStreamTracer.Factory implements ClientInterceptor {
+
+        private volatile boolean sent;
+
+        boolean isSent() {
+            return sent;
+        }
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+                MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+            return next.newCall(method, callOptions.withStreamTracerFactory(this));
+        }
+
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            return new ClientStreamTracer() {
+                @Override
+                public void outboundMessage(int seqNo) {
+                    sent = true;
+                }
+            };
+        }
+    }
 }
@@ -1,37 +1,28 @@
 package io.xcodebn.patientservice.kafka;
 
-import io.xcodebn.patientservice.model.Patient;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
-import patients.events.PatientEvent;
+
+import java.util.concurrent.CompletableFuture;
 
 
 @Slf4j
 @Service
 public class KafkaProducer
 {
+    public static final String PATIENT_TOPIC = "patient";
+
     private final KafkaTemplate<String,byte[]> kafkaTemplate;
 
     public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate) {
         this.kafkaTemplate = kafkaTemplate;
     }
 
-    public void sendEvent(Patient patient){
-        PatientEvent event = PatientEvent.newBuilder()
-                .setPatientId(patient.getId().toString())
-                .setName(patient.getName())
-                .setEmail(patient.getEmail())
-                .setEventType("PATIENT_CREATED")
-                .build();
-
-        try {
-            kafkaTemplate.send("patient",event.toByteArray());
-        }
-        catch (Exception ex){
-            log.error("Error sending patient creation event {} {}", ex.getMessage(),event);
-        }
-
+    // keyed by patient id so every event for one patient lands on the same partition, in order
+    public CompletableFuture<SendResult<String, byte[]>> sendEvent(String patientId, byte[] event){
+        return kafkaTemplate.send(PATIENT_TOPIC, patientId, event);
     }
 
 
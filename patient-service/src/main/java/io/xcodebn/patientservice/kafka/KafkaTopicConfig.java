@@ -0,0 +1,49 @@
+package io.xcodebn.patientservice.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Creates the patient topic with patient.topic.partitions when it does not exist yet, and leaves an existing one
+ * alone. Not a NewTopic bean: KafkaAdmin would add partitions to a smaller topic, and that changes the partition a
+ * patient id hashes to, so events already on the old partition and new ones for the same patient lose their order.
+ * Growing the topic is an ops migration: stop patient-service (events wait in the outbox), let analytics-service
+ * drain the topic, run kafka-topics.sh --alter --topic patient --partitions N, then start both again.
+ */
+@Slf4j
+@Configuration
+public class KafkaTopicConfig {
+
+    // consumers scale out one thread per partition, keep analytics.consumer.concurrency in line with this
+    @Bean
+    public ApplicationRunner patientTopicCreator(KafkaAdmin kafkaAdmin, @Value("${patient.topic.partitions:3}") int partitions) {
+        return args -> {
+            NewTopic topic = new NewTopic(KafkaProducer.PATIENT_TOPIC, Optional.of(partitions), Optional.empty());
+            try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+                admin.createTopics(List.of(topic)).all().get(kafkaAdmin.getOperationTimeout(), TimeUnit.SECONDS);
+                log.info("Created topic {} with {} partitions", topic.name(), partitions);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TopicExistsException) {
+                    log.debug("Topic {} already exists, partitions left as they are", topic.name());
+                } else {
+                    log.warn("Could not create topic {}: {}", topic.name(), e.getCause().getMessage());
+                }
+            } catch (TimeoutException e) {
+                log.warn("Could not create topic {}: Kafka did not answer within {}s", topic.name(), kafkaAdmin.getOperationTimeout());
+            }
+        };
+    }
+}
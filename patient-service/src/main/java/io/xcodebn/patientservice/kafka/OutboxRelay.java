@@ -0,0 +1,141 @@
+package io.xcodebn.patientservice.kafka;
+
+import io.xcodebn.patientservice.model.PatientOutboxEvent;
+import io.xcodebn.patientservice.repository.PatientOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.KafkaException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the patient outbox to the patient topic in batches.
+ * Rows are only deleted after the broker acked them, so a crash or a broker outage delays events but never drops them.
+ * A patient's events go out strictly one after the other: the next is sent only once the broker acked the previous
+ * one, and a failed event holds back everything after it. Events behind an older row this run did not claim, locked
+ * by another replica or past the batch, wait for a later run. Consumers may see a duplicate when an ack is lost, but
+ * never an older event after a newer one.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final PatientOutboxRepository outboxRepository;
+    private final KafkaProducer kafkaProducer;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    public OutboxRelay(
+            PatientOutboxRepository outboxRepository,
+            KafkaProducer kafkaProducer,
+            @Value("${patient.outbox.batch-size:100}") int batchSize,
+            @Value("${patient.outbox.send-timeout:PT10S}") Duration sendTimeout
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaProducer = kafkaProducer;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${patient.outbox.poll-interval:PT0.5S}")
+    @Transactional
+    public void relay() {
+        List<PatientOutboxEvent> batch = outboxRepository.findAllByOrderByCreatedAtAsc(Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // per patient, the events this run may publish, oldest first
+        Map<String, Deque<PatientOutboxEvent>> queues = publishable(batch);
+        // one deadline for the whole batch: the row locks and the connection are held until it is settled
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<PatientOutboxEvent> published = new ArrayList<>(batch.size());
+        while (!queues.isEmpty() && System.nanoTime() - deadline < 0) {
+            // the head event of every patient in one round, so the producer can still send them in few requests
+            List<PatientOutboxEvent> round = queues.values().stream().map(Deque::peekFirst).toList();
+            List<CompletableFuture<?>> sends = new ArrayList<>(round.size());
+            boolean stop = false;
+            for (PatientOutboxEvent event : round) {
+                try {
+                    sends.add(kafkaProducer.sendEvent(event.getAggregateId(), event.getPayload()));
+                } catch (KafkaException e) {
+                    // metadata unavailable, the rest of the batch would block just as long
+                    log.warn("Kafka unavailable, outbox events left for the next run: {}", e.getMessage());
+                    stop = true;
+                    break;
+                }
+            }
+
+            for (int i = 0; i < sends.size(); i++) {
+                PatientOutboxEvent event = round.get(i);
+                Deque<PatientOutboxEvent> queue = queues.get(event.getAggregateId());
+                try {
+                    sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    published.add(queue.removeFirst());
+                    if (queue.isEmpty()) {
+                        queues.remove(event.getAggregateId());
+                    }
+                } catch (ExecutionException | TimeoutException e) {
+                    // its later events stay unsent, otherwise the retried one would arrive after them
+                    queues.remove(event.getAggregateId());
+                    log.warn("Failed to publish outbox event {}, will retry: {}", event.getId(), e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stop = true;
+                    break;
+                }
+            }
+            if (stop) {
+                break;
+            }
+        }
+
+        if (!published.isEmpty()) {
+            outboxRepository.deleteAllInBatch(published);
+        }
+        log.debug("Published {} of {} outbox events", published.size(), batch.size());
+    }
+
+    // SKIP LOCKED may have passed over a patient's older rows that another replica holds, publishing the newer
+    // ones here would overtake them
+    private Map<String, Deque<PatientOutboxEvent>> publishable(List<PatientOutboxEvent> batch) {
+        Set<String> aggregateIds = new HashSet<>();
+        Set<UUID> ids = new HashSet<>();
+        for (PatientOutboxEvent event : batch) {
+            aggregateIds.add(event.getAggregateId());
+            ids.add(event.getId());
+        }
+        Map<String, Instant> blockedFrom = new HashMap<>();
+        for (PatientOutboxRepository.AggregateHead head : outboxRepository.findOldestOutside(aggregateIds, ids)) {
+            blockedFrom.put(head.getAggregateId(), head.getCreatedAt());
+        }
+
+        Map<String, Deque<PatientOutboxEvent>> queues = new LinkedHashMap<>();
+        for (PatientOutboxEvent event : batch) {
+            Instant blocked = blockedFrom.get(event.getAggregateId());
+            if (blocked == null || event.getCreatedAt().isBefore(blocked)) {
+                queues.computeIfAbsent(event.getAggregateId(), id -> new ArrayDeque<>()).addLast(event);
+            }
+        }
+        return queues;
+    }
+}
@@ -0,0 +1,52 @@
+package io.xcodebn.patientservice.kafka;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.xcodebn.patientservice.cache.PatientCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import patients.events.PatientEvent;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the patient cache of every replica coherent: updates and deletes made on another instance
+ * reach us as events on the patient topic. Each instance uses its own consumer group so all of them
+ * see every event, named after the host so a restart rejoins its group instead of leaving one behind.
+ * A new group starts from the latest offset, older events are covered by the cache ttl.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "patients.cache.invalidation.kafka-enabled", havingValue = "true")
+public class PatientCacheInvalidationListener {
+
+    private static final Set<String> INVALIDATING_EVENTS = Set.of("PATIENT_UPDATED", "PATIENT_DELETED");
+
+    private final PatientCache patientCache;
+
+    public PatientCacheInvalidationListener(PatientCache patientCache) {
+        this.patientCache = patientCache;
+    }
+
+    @KafkaListener(
+            topics = KafkaProducer.PATIENT_TOPIC,
+            groupId = "${patients.cache.invalidation.group-id}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+            }
+    )
+    public void onPatientEvent(byte[] payload) {
+        try {
+            PatientEvent event = PatientEvent.parseFrom(payload);
+            if (INVALIDATING_EVENTS.contains(event.getEventType())) {
+                patientCache.invalidate(UUID.fromString(event.getPatientId()));
+            }
+        } catch (InvalidProtocolBufferException | IllegalArgumentException e) {
+            log.warn("Ignoring unreadable patient event: {}", e.getMessage());
+        }
+    }
+}
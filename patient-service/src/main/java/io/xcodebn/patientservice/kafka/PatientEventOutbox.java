@@ -0,0 +1,53 @@
+package io.xcodebn.patientservice.kafka;
+
+import io.xcodebn.patientservice.model.Patient;
+import io.xcodebn.patientservice.model.PatientOutboxEvent;
+import io.xcodebn.patientservice.repository.PatientOutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import patients.events.PatientEvent;
+
+import java.util.List;
+
+/**
+ * Records patient events in the outbox table. Must run inside the transaction that changes the patient,
+ * so the event exists if and only if the change commits. {@link OutboxRelay} publishes it later.
+ */
+@Service
+public class PatientEventOutbox {
+
+    private final PatientOutboxRepository outboxRepository;
+
+    public PatientEventOutbox(PatientOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Patient patient, String eventType) {
+        outboxRepository.save(toOutboxEvent(patient, eventType));
+    }
+
+    // saveAll lets Hibernate batch the outbox inserts together with the patient rows
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<Patient> patients, String eventType) {
+        outboxRepository.saveAll(patients.stream().map(patient -> toOutboxEvent(patient, eventType)).toList());
+    }
+
+    private static PatientOutboxEvent toOutboxEvent(Patient patient, String eventType) {
+        PatientEvent event = PatientEvent.newBuilder()
+                .setPatientId(patient.getId().toString())
+                .setName(patient.getName())
+                .setEmail(patient.getEmail())
+                .setEventType(eventType)
+                .setDateOfBirth(patient.getDateOfBirth().toString())
+                .setRegisteredDate(patient.getRegisteredDate().toString())
+                .build();
+
+        return new PatientOutboxEvent(
+                patient.getId().toString(),
+                eventType,
+                event.toByteArray()
+        );
+    }
+}
@@ -0,0 +1,50 @@
+package io.xcodebn.patientservice.mapper;
+
+import io.xcodebn.patientservice.dto.PatientPageDTO;
+import io.xcodebn.patientservice.dto.PatientResponseDTO;
+import io.xcodebn.patientservice.dto.PatientSearchResultDTO;
+import io.xcodebn.patientservice.dto.PatientSummary;
+import patients.api.Patient;
+import patients.api.PatientList;
+
+/**
+ * Response DTOs to the patients.api protobuf messages. Every column behind these fields is NOT NULL,
+ * only the cursor can be missing and proto3 has no null, so the last page carries an empty one.
+ */
+public class PatientProtoMapper {
+
+    public static Patient toProto(PatientResponseDTO patient) {
+        return Patient.newBuilder()
+                .setId(patient.getId())
+                .setName(patient.getName())
+                .setEmail(patient.getEmail())
+                .setAddress(patient.getAddress())
+                .setDateOfBirth(patient.getDateOfBirth())
+                .build();
+    }
+
+    public static Patient toProto(PatientSummary patient) {
+        return Patient.newBuilder()
+                .setId(patient.id().toString())
+                .setName(patient.name())
+                .setEmail(patient.email())
+                .setAddress(patient.address())
+                .setDateOfBirth(patient.dateOfBirth().toString())
+                .build();
+    }
+
+    public static PatientList toProto(PatientPageDTO page) {
+        PatientList.Builder list = PatientList.newBuilder();
+        page.getPatients().forEach(patient -> list.addPatients(toProto(patient)));
+        if (page.getNextCursor() != null) {
+            list.setNextCursor(page.getNextCursor());
+        }
+        return list.build();
+    }
+
+    public static PatientList toProto(PatientSearchResultDTO result) {
+        PatientList.Builder list = PatientList.newBuilder().setTruncated(result.isTruncated());
+        result.getPatients().forEach(patient -> list.addPatients(toProto(patient)));
+        return list.build();
+    }
+}
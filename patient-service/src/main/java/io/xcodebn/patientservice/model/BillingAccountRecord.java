@@ -0,0 +1,64 @@
+package io.xcodebn.patientservice.model;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Outcome of creating the billing account for a patient, kept so PENDING or FAILED accounts can be reconciled.
+ */
+@Entity
+@Table(name = "patient_billing_account", indexes = @Index(name = "idx_patient_billing_account_status", columnList = "status"))
+@Data
+@NoArgsConstructor
+public class BillingAccountRecord implements Persistable<UUID> {
+    @Id
+    private UUID patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BillingAccountStatus status;
+
+    private String accountId;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    // times requeuePending sent an UNSENT account again
+    @Column(nullable = false)
+    private int attempts;
+
+    // the id is the patient's, so without this save() would SELECT before every insert to decide persist vs merge
+    @Transient
+    private boolean newRecord = true;
+
+    public BillingAccountRecord(UUID patientId, BillingAccountStatus status) {
+        this.patientId = patientId;
+        this.status = status;
+        this.updatedAt = Instant.now();
+    }
+
+    @Override
+    public UUID getId() {
+        return patientId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newRecord = false;
+    }
+}
@@ -0,0 +1,9 @@
+package io.xcodebn.patientservice.model;
+
+public enum BillingAccountStatus {
+    PENDING,
+    // the request provably never reached billing-service, safe to send again
+    UNSENT,
+    CREATED,
+    FAILED
+}
@@ -0,0 +1,45 @@
+package io.xcodebn.patientservice.model;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A serialized PatientEvent waiting to be published to Kafka.
+ * Rows are written in the same transaction as the patient change and removed once the broker acks them.
+ */
+@Entity
+@Table(name = "patient_outbox", indexes = {
+        @Index(name = "idx_patient_outbox_created_at", columnList = "createdAt"),
+        @Index(name = "idx_patient_outbox_aggregate_id", columnList = "aggregateId, createdAt")
+})
+@Data
+@NoArgsConstructor
+public class PatientOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String aggregateId;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false, length = 4096)
+    private byte[] payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public PatientOutboxEvent(String aggregateId, String eventType, byte[] payload) {
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,46 @@
+package io.xcodebn.patientservice.repository;
+
+import io.xcodebn.patientservice.model.BillingAccountRecord;
+import io.xcodebn.patientservice.model.BillingAccountStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BillingAccountRecordRepository extends JpaRepository<BillingAccountRecord, UUID> {
+
+    List<BillingAccountRecord> findByStatus(BillingAccountStatus status);
+
+    List<BillingAccountRecord> findByStatusAndUpdatedAtBefore(BillingAccountStatus status, Instant before, Limit limit);
+
+    // only matches the updatedAt that was read, so two replicas never send the same UNSENT account twice
+    @Transactional
+    @Modifying
+    @Query("""
+            update BillingAccountRecord r
+            set r.status = io.xcodebn.patientservice.model.BillingAccountStatus.PENDING,
+                r.updatedAt = :now,
+                r.attempts = r.attempts + 1
+            where r.patientId = :patientId
+              and r.status = io.xcodebn.patientservice.model.BillingAccountStatus.UNSENT
+              and r.updatedAt = :seenUpdatedAt
+            """)
+    int claimUnsent(UUID patientId, Instant seenUpdatedAt, Instant now);
+
+    // single UPDATE from the outcome callback, no need to load the record first
+    @Transactional
+    @Modifying
+    @Query("""
+            update BillingAccountRecord r
+            set r.status = :status, r.accountId = :accountId, r.lastError = :lastError, r.updatedAt = :updatedAt
+            where r.patientId = :patientId
+            """)
+    int updateOutcome(UUID patientId, BillingAccountStatus status, String accountId, String lastError, Instant updatedAt);
+}
@@ -0,0 +1,185 @@
+package io.xcodebn.patientservice.repository;
+
+import io.xcodebn.patientservice.dto.PatientResponseDTO;
+import io.xcodebn.patientservice.dto.PatientSearchCriteria;
+import io.xcodebn.patientservice.model.Patient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import patients.events.PatientEvent;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access for paths where loading managed entities would be wasteful.
+ */
+@Repository
+public class PatientJdbcRepository {
+
+    private static final String STREAM_ALL_SQL = """
+            SELECT id, name, email, address, date_of_birth
+            FROM patient
+            ORDER BY registered_date, id
+            """;
+
+    private static final String STREAM_SNAPSHOT_SQL = """
+            SELECT id, name, email, date_of_birth, registered_date
+            FROM patient
+            """;
+
+    // one round trip: the unique index on email decides conflicts, RETURNING gives back what the event needs
+    private static final String UPDATE_SQL = """
+            UPDATE patient
+            SET name = ?, email = ?, address = ?, date_of_birth = ?
+            WHERE id = ?
+            RETURNING registered_date
+            """;
+
+    // H2 (local runs, load tests) has no RETURNING, a data change delta table is its single statement equivalent
+    private static final String H2_UPDATE_SQL = """
+            SELECT registered_date FROM FINAL TABLE (
+                UPDATE patient
+                SET name = ?, email = ?, address = ?, date_of_birth = ?
+                WHERE id = ?
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final String updateSql;
+    private final String lowerName;
+
+    public PatientJdbcRepository(
+            JdbcTemplate jdbcTemplate,
+            @Value("${patients.export.fetch-size:1000}") int fetchSize
+    ) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        String database = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                DatabaseMetaData::getDatabaseProductName);
+        this.updateSql = "H2".equals(database) ? H2_UPDATE_SQL : UPDATE_SQL;
+        // must match idx_patient_lower_name; on Postgres the C collation makes LIKE 'abc%' an index range scan
+        this.lowerName = "H2".equals(database) ? "lower(name)" : "lower(name) COLLATE \"C\"";
+    }
+
+    /**
+     * Searches without loading entities, rows go straight to the response shape.
+     * The most selective criterion drives the ordering so it matches an index and the limit stops the scan early.
+     */
+    public List<PatientResponseDTO> search(PatientSearchCriteria criteria, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id, name, email, address, date_of_birth FROM patient WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (criteria.email() != null) {
+            sql.append(" AND lower(email) = ?");
+            args.add(criteria.email().toLowerCase(Locale.ROOT));
+        }
+        if (criteria.namePrefix() != null) {
+            sql.append(" AND ").append(lowerName).append(" LIKE ? ESCAPE '\\'");
+            args.add(escapeLike(criteria.namePrefix().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (criteria.bornFrom() != null) {
+            sql.append(" AND date_of_birth >= ?");
+            args.add(criteria.bornFrom());
+        }
+        if (criteria.bornTo() != null) {
+            sql.append(" AND date_of_birth <= ?");
+            args.add(criteria.bornTo());
+        }
+
+        if (criteria.email() != null) {
+            sql.append(" ORDER BY id");
+        } else if (criteria.namePrefix() != null) {
+            sql.append(" ORDER BY ").append(lowerName).append(", id");
+        } else {
+            sql.append(" ORDER BY date_of_birth, id");
+        }
+        sql.append(" LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> toResponse(rs), args.toArray());
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Updates the patient in a single statement. Empty when no patient has this id; a taken email
+     * surfaces as a DataIntegrityViolationException from the unique index.
+     */
+    public Optional<Patient> update(UUID id, String name, String email, String address, LocalDate dateOfBirth) {
+        List<LocalDate> registeredDates = jdbcTemplate.query(updateSql,
+                (rs, rowNum) -> rs.getObject("registered_date", LocalDate.class),
+                name, email, address, dateOfBirth, id);
+        if (registeredDates.isEmpty()) {
+            return Optional.empty();
+        }
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setName(name);
+        patient.setEmail(email);
+        patient.setAddress(address);
+        patient.setDateOfBirth(dateOfBirth);
+        patient.setRegisteredDate(registeredDates.getFirst());
+        return Optional.of(patient);
+    }
+
+    // Postgres only honours the fetch size inside a transaction, otherwise it buffers the whole result set
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<PatientResponseDTO> consumer) {
+        jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(STREAM_ALL_SQL);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                rs -> {
+                    consumer.accept(toResponse(rs));
+                }
+        );
+    }
+
+    // every patient as the event analytics-service rebuilds its aggregates from
+    @Transactional(readOnly = true)
+    public void streamSnapshot(Consumer<PatientEvent> consumer) {
+        jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(STREAM_SNAPSHOT_SQL);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                rs -> {
+                    consumer.accept(PatientEvent.newBuilder()
+                            .setPatientId(rs.getString("id"))
+                            .setName(rs.getString("name"))
+                            .setEmail(rs.getString("email"))
+                            .setEventType("PATIENT_SNAPSHOT")
+                            .setDateOfBirth(rs.getObject("date_of_birth", LocalDate.class).toString())
+                            .setRegisteredDate(rs.getObject("registered_date", LocalDate.class).toString())
+                            .build());
+                }
+        );
+    }
+
+    private static PatientResponseDTO toResponse(ResultSet rs) throws SQLException {
+        return new PatientResponseDTO(
+                rs.getString("id"),
+                rs.getString("email"),
+                rs.getString("name"),
+                rs.getString("address"),
+                rs.getObject("date_of_birth", LocalDate.class).toString()
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package io.xcodebn.patientservice.repository;
+
+import io.xcodebn.patientservice.model.PatientOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PatientOutboxRepository extends JpaRepository<PatientOutboxEvent, UUID> {
+
+    // SKIP LOCKED (-2) lets several patient-service replicas drain the outbox without publishing a row twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<PatientOutboxEvent> findAllByOrderByCreatedAtAsc(Limit limit);
+
+    // oldest row per aggregate outside the given ones, whether another replica holds it locked or it is simply newer
+    @Query("""
+            select e.aggregateId as aggregateId, min(e.createdAt) as createdAt
+            from PatientOutboxEvent e
+            where e.aggregateId in :aggregateIds and e.id not in :ids
+            group by e.aggregateId
+            """)
+    List<AggregateHead> findOldestOutside(Collection<String> aggregateIds, Collection<UUID> ids);
+
+    interface AggregateHead {
+        String getAggregateId();
+
+        Instant getCreatedAt();
+    }
+}
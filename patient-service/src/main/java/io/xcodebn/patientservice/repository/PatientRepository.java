@@ -1,17 +1,44 @@
 package io.xcodebn.patientservice.repository;
 
+import io.xcodebn.patientservice.dto.PatientSummary;
 import io.xcodebn.patientservice.model.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, UUID> {
 
-    boolean existsByEmail(String email);
     Patient findByEmail(String email);
-    //this could replace my code
-    boolean existsByEmailAndIdNot(String email, UUID id);
+
+    // one set-based lookup per bulk import chunk instead of existsByEmail per row
+    @Query("select p.email from Patient p where p.email in :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    // keyset pagination over (registeredDate, id), first page has no cursor; rows are projections, not entities
+    @Query("""
+            select new io.xcodebn.patientservice.dto.PatientSummary(
+                p.id, p.email, p.name, p.address, p.dateOfBirth, p.registeredDate)
+            from Patient p
+            order by p.registeredDate asc, p.id asc
+            """)
+    List<PatientSummary> findFirstPage(Limit limit);
+
+    @Query("""
+            select new io.xcodebn.patientservice.dto.PatientSummary(
+                p.id, p.email, p.name, p.address, p.dateOfBirth, p.registeredDate)
+            from Patient p
+            where p.registeredDate > :registeredDate
+               or (p.registeredDate = :registeredDate and p.id > :id)
+            order by p.registeredDate asc, p.id asc
+            """)
+    List<PatientSummary> findPageAfter(LocalDate registeredDate, UUID id, Limit limit);
 }
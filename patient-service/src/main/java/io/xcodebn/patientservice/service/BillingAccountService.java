@@ -0,0 +1,227 @@
+package io.xcodebn.patientservice.service;
+
+import billing.BillingResponse;
+import io.xcodebn.patientservice.exception.BillingCircuitOpenException;
+import io.xcodebn.patientservice.exception.BillingNotSentException;
+import io.xcodebn.patientservice.grpc.BillingClientMode;
+import io.xcodebn.patientservice.grpc.BillingServiceGrpcClient;
+import io.xcodebn.patientservice.model.BillingAccountRecord;
+import io.xcodebn.patientservice.model.BillingAccountStatus;
+import io.xcodebn.patientservice.model.Patient;
+import io.xcodebn.patientservice.repository.BillingAccountRecordRepository;
+import io.xcodebn.patientservice.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the billing account for a new patient and records the outcome in patient_billing_account.
+ * CreateBillingAccount is not idempotent, so only requests that provably never reached billing-service
+ * are sent again: those refused by the open circuit and those that failed before leaving this process
+ * are marked UNSENT and requeuePending retries them, up to billing.client.requeue.max-attempts.
+ * Anything that may have reached billing-service and failed ends FAILED for reconciliation, and a
+ * PENDING row whose outcome never arrived stays PENDING for the same reason. Calls still waiting for a
+ * slot are UNSENT on a clean shutdown, so that only happens to calls in flight or, after a crash, to the
+ * at most billing.client.max-queued waiting ones.
+ */
+@Slf4j
+@Service
+public class BillingAccountService {
+
+    private final BillingServiceGrpcClient billingServiceGrpcClient;
+    private final BillingAccountRecordRepository billingAccountRecordRepository;
+    private final PatientRepository patientRepository;
+    private final BillingClientMode mode;
+    private final Executor outcomeExecutor;
+    private final Duration requeueMinAge;
+    private final int requeueBatchSize;
+    private final int requeueMaxAttempts;
+
+    public BillingAccountService(
+            BillingServiceGrpcClient billingServiceGrpcClient,
+            BillingAccountRecordRepository billingAccountRecordRepository,
+            PatientRepository patientRepository,
+            @Value("${billing.client.mode:BLOCKING}") BillingClientMode mode,
+            // Boot's application executor, on virtual threads when spring.threads.virtual.enabled is set
+            @Qualifier("applicationTaskExecutor") Executor outcomeExecutor,
+            @Value("${billing.client.requeue.min-age:PT1M}") Duration requeueMinAge,
+            @Value("${billing.client.requeue.batch-size:100}") int requeueBatchSize,
+            @Value("${billing.client.requeue.max-attempts:10}") int requeueMaxAttempts
+    ) {
+        this.billingServiceGrpcClient = billingServiceGrpcClient;
+        this.billingAccountRecordRepository = billingAccountRecordRepository;
+        this.patientRepository = patientRepository;
+        this.mode = mode;
+        this.outcomeExecutor = outcomeExecutor;
+        this.requeueMinAge = requeueMinAge;
+        this.requeueBatchSize = requeueBatchSize;
+        this.requeueMaxAttempts = requeueMaxAttempts;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requestAccount(Patient patient) {
+        BillingAccountRecord record = billingAccountRecordRepository.save(
+                new BillingAccountRecord(patient.getId(), BillingAccountStatus.PENDING));
+
+        if (mode == BillingClientMode.BLOCKING) {
+            BillingResponse response;
+            try {
+                response = billingServiceGrpcClient.createBillingAccount(
+                        patient.getId().toString(), patient.getName(), patient.getEmail());
+            } catch (RuntimeException e) {
+                if (!isUnsent(e)) {
+                    throw e;
+                }
+                // the patient is created now and the account follows through requeuePending
+                log.warn("Billing unavailable, account for patient {} marked UNSENT: {}", patient.getId(), e.getMessage());
+                record.setStatus(BillingAccountStatus.UNSENT);
+                record.setLastError(truncate(e.getMessage()));
+                record.setUpdatedAt(Instant.now());
+                return;
+            }
+            record.setStatus(BillingAccountStatus.CREATED);
+            record.setAccountId(response.getAccountId());
+            record.setUpdatedAt(Instant.now());
+            return;
+        }
+
+        // the patient must be committed before billing-service hears about it
+        UUID id = patient.getId();
+        String name = patient.getName();
+        String email = patient.getEmail();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                createAccountAsync(id, name, email);
+            }
+        });
+    }
+
+    /**
+     * Bulk variant used by the import: PENDING rows are saved in one batch and, after commit,
+     * the accounts go out over the streaming CreateBillingAccounts RPC instead of one call per patient.
+     * In BLOCKING mode the caller also waits for their outcomes, so the import moves on chunk by chunk
+     * as billing-service keeps up; outcomes are recorded as in the single patient ASYNC path.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requestAccounts(List<Patient> patients) {
+        billingAccountRecordRepository.saveAll(patients.stream()
+                .map(patient -> new BillingAccountRecord(patient.getId(), BillingAccountStatus.PENDING))
+                .toList());
+
+        List<BillingTarget> targets = patients.stream()
+                .map(patient -> new BillingTarget(patient.getId(), patient.getName(), patient.getEmail()))
+                .toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                CompletableFuture<?>[] outcomes = targets.stream()
+                        .map(target -> recordOutcome(target.id(),
+                                billingServiceGrpcClient.submitToBatch(target.id().toString(), target.name(), target.email())))
+                        .toArray(CompletableFuture[]::new);
+                if (mode == BillingClientMode.BLOCKING) {
+                    // bounded by billing.client.batch.deadline, the stream fails every result once it passes
+                    CompletableFuture.allOf(outcomes).join();
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends UNSENT accounts that are older than billing.client.requeue.min-age again, as PENDING until their
+     * outcome arrives. One that is still UNSENT after max-attempts sends is given up on as FAILED.
+     */
+    @Scheduled(fixedDelayString = "${billing.client.requeue.interval:PT30S}")
+    public void requeuePending() {
+        if (!billingServiceGrpcClient.isCallPermitted()) {
+            return;
+        }
+        List<BillingAccountRecord> unsent = billingAccountRecordRepository.findByStatusAndUpdatedAtBefore(
+                BillingAccountStatus.UNSENT, Instant.now().minus(requeueMinAge), Limit.of(requeueBatchSize));
+        if (unsent.isEmpty()) {
+            return;
+        }
+        Map<UUID, Patient> patients = patientRepository.findAllById(
+                        unsent.stream().map(BillingAccountRecord::getPatientId).toList()).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+
+        int sent = 0;
+        for (BillingAccountRecord record : unsent) {
+            Patient patient = patients.get(record.getPatientId());
+            if (patient == null) {
+                billingAccountRecordRepository.updateOutcome(record.getPatientId(), BillingAccountStatus.FAILED,
+                        null, "Patient no longer exists", Instant.now());
+            } else if (record.getAttempts() >= requeueMaxAttempts) {
+                log.error("Billing account for patient {} still unsent after {} attempts, giving up", patient.getId(), record.getAttempts());
+                billingAccountRecordRepository.updateOutcome(record.getPatientId(), BillingAccountStatus.FAILED,
+                        null, truncate("Not sent after " + record.getAttempts() + " attempts: " + record.getLastError()), Instant.now());
+            } else if (billingAccountRecordRepository.claimUnsent(record.getPatientId(), record.getUpdatedAt(), Instant.now()) == 1) {
+                createAccountAsync(patient.getId(), patient.getName(), patient.getEmail());
+                sent++;
+            }
+        }
+        log.info("Requeued {} of {} unsent billing accounts", sent, unsent.size());
+    }
+
+    private void createAccountAsync(UUID id, String name, String email) {
+        recordOutcome(id, billingServiceGrpcClient.createBillingAccountAsync(id.toString(), name, email));
+    }
+
+    // the UPDATE is blocking JDBC, so it runs off the gRPC thread that completes the future
+    // completes once the outcome is written
+    private CompletableFuture<Void> recordOutcome(UUID id, CompletableFuture<BillingResponse> billing) {
+        return billing.handleAsync((response, failure) -> {
+            if (failure == null) {
+                billingAccountRecordRepository.updateOutcome(
+                        id, BillingAccountStatus.CREATED, response.getAccountId(), null, Instant.now());
+                return null;
+            }
+            Throwable error = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            if (isUnsent(error)) {
+                // requeuePending picks it up after min-age
+                log.warn("Billing unavailable, account for patient {} marked UNSENT: {}", id, error.getMessage());
+                billingAccountRecordRepository.updateOutcome(
+                        id, BillingAccountStatus.UNSENT, null, truncate(error.getMessage()), Instant.now());
+                return null;
+            }
+            log.error("Billing account creation failed for patient {}: {}", id, error.getMessage());
+            billingAccountRecordRepository.updateOutcome(
+                    id, BillingAccountStatus.FAILED, null, truncate(error.getMessage()), Instant.now());
+            return null;
+        }, outcomeExecutor);
+    }
+
+    // a timeout or an outage status after the request went out may still have created the account
+    private static boolean isUnsent(Throwable error) {
+        return error instanceof BillingCircuitOpenException || error instanceof BillingNotSentException;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private record BillingTarget(UUID id, String name, String email) {
+    }
+}
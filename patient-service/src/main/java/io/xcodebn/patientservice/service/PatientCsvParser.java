@@ -0,0 +1,97 @@
+package io.xcodebn.patientservice.service;
+
+import io.xcodebn.patientservice.dto.PatientRequestDTO;
+import io.xcodebn.patientservice.exception.InvalidImportFileException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSV rows for the bulk import. Columns are matched by the header names, in any order,
+ * so a file with reordered columns still puts every field where it belongs.
+ */
+final class PatientCsvParser {
+
+    static final List<String> COLUMNS = List.of("name", "email", "address", "dateOfBirth", "registeredDate");
+
+    // column name -> position in a row
+    private final Map<String, Integer> positions;
+    private final int width;
+
+    private PatientCsvParser(Map<String, Integer> positions, int width) {
+        this.positions = positions;
+        this.width = width;
+    }
+
+    static PatientCsvParser fromHeader(String header) {
+        // Excel writes a byte order mark in front of UTF-8 files
+        List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            String column = COLUMNS.stream()
+                    .filter(known -> known.equalsIgnoreCase(name))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidImportFileException("Unknown CSV column '" + name + "', expected " + COLUMNS));
+            if (positions.putIfAbsent(column, i) != null) {
+                throw new InvalidImportFileException("CSV column " + column + " appears twice");
+            }
+        }
+        List<String> missing = COLUMNS.stream()
+                .filter(column -> !positions.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportFileException("CSV header is missing " + missing);
+        }
+        return new PatientCsvParser(positions, names.size());
+    }
+
+    PatientRequestDTO parse(String line) {
+        List<String> fields = split(line);
+        if (fields.size() != width) {
+            throw new IllegalArgumentException("expected " + width + " columns, found " + fields.size());
+        }
+        return PatientRequestDTO.builder()
+                .name(field(fields, "name"))
+                .email(field(fields, "email"))
+                .address(field(fields, "address"))
+                .dateOfBirth(field(fields, "dateOfBirth"))
+                .registeredDate(field(fields, "registeredDate"))
+                .build();
+    }
+
+    private String field(List<String> fields, String column) {
+        return fields.get(positions.get(column));
+    }
+
+    // RFC 4180 style: fields may be quoted, "" inside quotes is a literal quote
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+}
@@ -0,0 +1,38 @@
+package io.xcodebn.patientservice.service;
+
+import io.xcodebn.patientservice.dto.PatientSummary;
+import io.xcodebn.patientservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in the (registeredDate, id) ordering of patients.
+ * Clients only ever see the base64url form and pass it back unchanged.
+ */
+public record PatientCursor(LocalDate registeredDate, UUID id) {
+
+    public static PatientCursor after(PatientSummary patient) {
+        return new PatientCursor(patient.registeredDate(), patient.id());
+    }
+
+    public String encode() {
+        String raw = registeredDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PatientCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new PatientCursor(
+                    LocalDate.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package io.xcodebn.patientservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.xcodebn.patientservice.dto.BulkImportReportDTO;
+import io.xcodebn.patientservice.dto.BulkImportRowDTO;
+import io.xcodebn.patientservice.dto.PatientRequestDTO;
+import io.xcodebn.patientservice.dto.validators.CreatePatientValidationGroup;
+import io.xcodebn.patientservice.kafka.PatientEventOutbox;
+import io.xcodebn.patientservice.mapper.PatientMapper;
+import io.xcodebn.patientservice.model.Patient;
+import io.xcodebn.patientservice.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk patient import from NDJSON or CSV.
+ * The upload is read line by line and handled in chunks: one duplicate-email query per chunk,
+ * JDBC batched inserts for patients and outbox events, and billing over the streaming RPC.
+ * The report counts created rows and only lists the ones that were not, so memory does not grow with the upload.
+ */
+@Slf4j
+@Service
+public class PatientImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private final PatientRepository patientRepository;
+    private final PatientEventOutbox patientEventOutbox;
+    private final BillingAccountService billingAccountService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public PatientImportService(
+            PatientRepository patientRepository,
+            PatientEventOutbox patientEventOutbox,
+            BillingAccountService billingAccountService,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${patients.import.chunk-size:500}") int chunkSize
+    ) {
+        this.patientRepository = patientRepository;
+        this.patientEventOutbox = patientEventOutbox;
+        this.billingAccountService = billingAccountService;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkImportReportDTO importPatients(InputStream inputStream, Format format) throws IOException {
+        List<BulkImportRowDTO> failures = new ArrayList<>();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        long created = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            PatientCsvParser csv = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && csv == null) {
+                    csv = PatientCsvParser.fromHeader(line);
+                    continue;
+                }
+                ParsedRow row = parse(line, lineNumber, csv);
+                if (row.error() != null) {
+                    failures.add(rejected(row, "INVALID", row.error()));
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    created += importChunk(chunk, failures);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += importChunk(chunk, failures);
+        }
+
+        failures.sort(Comparator.comparingLong(BulkImportRowDTO::getLine));
+        return new BulkImportReportDTO(created, failures.size(), failures);
+    }
+
+    // adds the rows that were not created to failures, returns how many were
+    private int importChunk(List<ParsedRow> chunk, List<BulkImportRowDTO> failures) {
+        try {
+            return insert(chunk, failures);
+        } catch (DataAccessException e) {
+            // e.g. a concurrent insert took one of the emails between the lookup and the flush; row by row,
+            // each with a fresh lookup, only the offending rows are rejected
+            log.warn("Bulk import chunk of {} rows failed, importing them one by one: {}", chunk.size(), e.getMessage());
+            int created = 0;
+            for (ParsedRow row : chunk) {
+                // the rolled back attempt left its generated id on the entity
+                ParsedRow retry = new ParsedRow(row.line(), row.request(), PatientMapper.toModel(row.request()), null);
+                try {
+                    created += insert(List.of(retry), failures);
+                } catch (DataAccessException rowError) {
+                    failures.add(rejected(row, "FAILED", rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+            return created;
+        }
+    }
+
+    // one transaction for the rows, duplicates only reach failures once it committed
+    private int insert(List<ParsedRow> rows, List<BulkImportRowDTO> failures) {
+        List<BulkImportRowDTO> duplicates = new ArrayList<>();
+        int created = transactionTemplate.execute(status -> {
+            Set<String> existing = patientRepository.findExistingEmails(
+                    rows.stream().map(row -> row.request().getEmail()).collect(Collectors.toSet()));
+            Set<String> seenInChunk = new HashSet<>();
+
+            List<Patient> toInsert = new ArrayList<>(rows.size());
+            for (ParsedRow row : rows) {
+                String email = row.request().getEmail();
+                if (existing.contains(email) || !seenInChunk.add(email)) {
+                    duplicates.add(rejected(row, "DUPLICATE", "A patient of this email already exists"));
+                    continue;
+                }
+                toInsert.add(row.patient());
+            }
+
+            // ids are generated in memory, so these are flushed as JDBC batches
+            patientRepository.saveAll(toInsert);
+            patientEventOutbox.recordAll(toInsert, "PATIENT_CREATED");
+            billingAccountService.requestAccounts(toInsert);
+            entityManager.flush();
+            entityManager.clear();
+            return toInsert.size();
+        });
+        failures.addAll(duplicates);
+        return created;
+    }
+
+    // csv is null for NDJSON
+    private ParsedRow parse(String line, long lineNumber, PatientCsvParser csv) {
+        PatientRequestDTO request;
+        try {
+            request = csv != null ? csv.parse(line) : objectMapper.readValue(line, PatientRequestDTO.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return new ParsedRow(lineNumber, null, null, "Unparseable row: " + e.getMessage());
+        }
+        if (request.getRegisteredDate() == null) {
+            request.setRegisteredDate("");
+        }
+
+        Set<ConstraintViolation<PatientRequestDTO>> violations =
+                validator.validate(request, Default.class, CreatePatientValidationGroup.class);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            return new ParsedRow(lineNumber, request, null, message);
+        }
+        try {
+            return new ParsedRow(lineNumber, request, PatientMapper.toModel(request), null);
+        } catch (DateTimeParseException e) {
+            return new ParsedRow(lineNumber, request, null, "Invalid date: " + e.getParsedString());
+        }
+    }
+
+    private static BulkImportRowDTO rejected(ParsedRow row, String status, String message) {
+        String email = row.request() == null ? null : row.request().getEmail();
+        return new BulkImportRowDTO(row.line(), email, status, message);
+    }
+
+    private record ParsedRow(long line, PatientRequestDTO request, Patient patient, String error) {
+    }
+}
@@ -1,18 +1,32 @@
 package io.xcodebn.patientservice.service;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.xcodebn.patientservice.cache.PatientCache;
+import io.xcodebn.patientservice.dto.PatientPageDTO;
 import io.xcodebn.patientservice.dto.PatientRequestDTO;
 import io.xcodebn.patientservice.dto.PatientResponseDTO;
-import io.xcodebn.patientservice.exception.EmailAlreadyExistsException;
+import io.xcodebn.patientservice.dto.PatientSearchCriteria;
+import io.xcodebn.patientservice.dto.PatientSearchResultDTO;
+import io.xcodebn.patientservice.dto.PatientSummary;
+import io.xcodebn.patientservice.exception.InvalidSearchCriteriaException;
 import io.xcodebn.patientservice.exception.PatientNotFoundException;
-import io.xcodebn.patientservice.grpc.BillingServiceGrpcClient;
-import io.xcodebn.patientservice.kafka.KafkaProducer;
+import io.xcodebn.patientservice.kafka.PatientEventOutbox;
 import io.xcodebn.patientservice.mapper.PatientMapper;
 import io.xcodebn.patientservice.model.Patient;
+import io.xcodebn.patientservice.repository.PatientJdbcRepository;
 import io.xcodebn.patientservice.repository.PatientRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -22,75 +36,159 @@ import java.util.UUID;
 public class PatientService {
     private final PatientRepository patientRepository;
 
-    private final BillingServiceGrpcClient billingServiceGrpcClient;
+    private final BillingAccountService billingAccountService;
 
-    private final KafkaProducer kafkaProducer;
+    private final PatientEventOutbox patientEventOutbox;
 
+    private final PatientJdbcRepository patientJdbcRepository;
 
-    public PatientService(PatientRepository patientRepository, BillingServiceGrpcClient billingServiceGrpcClient, KafkaProducer kafkaProducer) {
+    private final ObjectMapper objectMapper;
+
+    private final PatientCache patientCache;
+
+    private final int maxPageSize;
+
+    private final int maxSearchResults;
+
+
+    public PatientService(PatientRepository patientRepository, BillingAccountService billingAccountService, PatientEventOutbox patientEventOutbox,
+                          PatientJdbcRepository patientJdbcRepository, ObjectMapper objectMapper, PatientCache patientCache,
+                          @Value("${patients.page.max-size:500}") int maxPageSize,
+                          @Value("${patients.search.max-results:100}") int maxSearchResults) {
         this.patientRepository = patientRepository;
-        this.billingServiceGrpcClient = billingServiceGrpcClient;
-        this.kafkaProducer = kafkaProducer;
+        this.billingAccountService = billingAccountService;
+        this.patientEventOutbox = patientEventOutbox;
+        this.patientJdbcRepository = patientJdbcRepository;
+        this.objectMapper = objectMapper;
+        this.patientCache = patientCache;
+        this.maxPageSize = maxPageSize;
+        this.maxSearchResults = maxSearchResults;
+    }
+
+    public PatientResponseDTO getPatient(UUID id) {
+        return patientCache.get(id, key -> patientRepository.findById(key)
+                .map(PatientMapper::toPatientResponseDTO)
+                .orElseThrow(() -> new PatientNotFoundException("Patient not found with ID:  " + key)));
     }
 
-    public List<PatientResponseDTO> getPatients() {
-        List<Patient> patients = patientRepository.findAll();
+    // read-only: Hibernate skips flushing and snapshots, and the projections are never managed anyway
+    @Transactional(readOnly = true)
+    public PatientPageDTO getPatients(String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, maxPageSize);
+        // one extra row tells us whether there is a next page without a count query
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<PatientSummary> patients;
+        if (cursor == null || cursor.isBlank()) {
+            patients = patientRepository.findFirstPage(limit);
+        } else {
+            PatientCursor after = PatientCursor.decode(cursor);
+            patients = patientRepository.findPageAfter(after.registeredDate(), after.id(), limit);
+        }
 
-        return patients.stream()
-                .map(PatientMapper::toPatientResponseDTO).toList();
+        boolean hasMore = patients.size() > pageSize;
+        List<PatientSummary> page = hasMore ? patients.subList(0, pageSize) : patients;
 
+        return new PatientPageDTO(
+                page,
+                hasMore ? PatientCursor.after(page.getLast()).encode() : null
+        );
     }
 
-    public PatientResponseDTO createPatient(PatientRequestDTO patientRequestDTO) {
-        if(patientRepository.existsByEmail(patientRequestDTO.getEmail())){
-            throw new EmailAlreadyExistsException("A patient of this email already exists:" + patientRequestDTO.getEmail());
+    public PatientSearchResultDTO searchPatients(PatientSearchCriteria criteria, int limit) {
+        // an unfiltered search would be the full list, that is what GET /patients pages through
+        if (criteria.isEmpty()) {
+            throw new InvalidSearchCriteriaException("Provide at least one of name, email, bornFrom, bornTo");
         }
-        Patient patient = patientRepository.save(
+        if (criteria.bornFrom() != null && criteria.bornTo() != null && criteria.bornFrom().isAfter(criteria.bornTo())) {
+            throw new InvalidSearchCriteriaException("bornFrom must not be after bornTo");
+        }
+        int resultLimit = Math.clamp(limit, 1, maxSearchResults);
+        // one extra row tells us whether the result was cut off
+        List<PatientResponseDTO> patients = patientJdbcRepository.search(criteria, resultLimit + 1);
+
+        boolean truncated = patients.size() > resultLimit;
+        return new PatientSearchResultDTO(truncated ? patients.subList(0, resultLimit) : patients, truncated);
+    }
+
+    // writes every patient as one JSON line without holding the table in memory
+    public void exportPatients(OutputStream outputStream) {
+        patientJdbcRepository.streamAll(patient -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(patient));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void exportSnapshot(OutputStream outputStream) {
+        patientJdbcRepository.streamSnapshot(event -> {
+            try {
+                event.writeDelimitedTo(outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Transactional
+    public PatientResponseDTO createPatient(PatientRequestDTO patientRequestDTO) {
+        // no exists check: the unique index on email rejects duplicates, GlobalExceptionHandler maps that to
+        // EmailAlreadyExistsException. Flushing here surfaces it before the billing call and the outbox insert
+        Patient patient = patientRepository.saveAndFlush(
                 PatientMapper.toModel(patientRequestDTO)
         );
 
-         billingServiceGrpcClient.createBillingAccount(
-                patient.getId().toString(),
-                patient.getName(),
-                patient.getEmail()
-        );
+         // in ASYNC mode the account is created after commit, the outcome lands in patient_billing_account
+         billingAccountService.requestAccount(patient);
 
-         kafkaProducer.sendEvent(patient);
+         // published by OutboxRelay once this transaction commits
+         patientEventOutbox.record(patient, "PATIENT_CREATED");
 
 
         return PatientMapper.toPatientResponseDTO(patient);
     }
 
+    @Transactional
     public PatientResponseDTO updatePatient(UUID id, PatientRequestDTO patientRequestDTO) {
+        // a single UPDATE ... RETURNING instead of find, email check and save
+        Patient updatedPatient = patientJdbcRepository.update(
+                id,
+                patientRequestDTO.getName(),
+                patientRequestDTO.getEmail(),
+                patientRequestDTO.getAddress(),
+                LocalDate.parse(patientRequestDTO.getDateOfBirth())
+        ).orElseThrow(() -> new PatientNotFoundException("Patient not found with ID:  " + id));
+
+        // other replicas evict their copy when they see this event on the patient topic
+        patientEventOutbox.record(updatedPatient, "PATIENT_UPDATED");
+        evictAfterCommit(id);
 
+        return PatientMapper.toDTO(updatedPatient);
+    }
 
+
+    @Transactional
+    public void deletePatient(UUID id) {
         Patient patient = patientRepository.findById(id).orElseThrow(
-                () -> new PatientNotFoundException("Patient not found with ID:  " + id)
+                () -> new PatientNotFoundException("Patient with id " + id + " doesn't exist")
         );
+        patientRepository.delete(patient);
 
-//        if(patientRepository.existsByEmail(patientRequestDTO.getEmail()) && !Objects.equals(patientRequestDTO.getEmail(), patientRepository.getReferenceById(id).getEmail())){
-//            throw new EmailAlreadyExistsException("A patient of this email already exists:" + patientRequestDTO.getEmail());
-//        }
-        if(patientRepository.existsByEmailAndIdNot(patientRequestDTO.getEmail(), id)){
-            throw new EmailAlreadyExistsException("A patient of this email already exists:" + patientRequestDTO.getEmail());
-        }
-
-
-        patient.setName(patientRequestDTO.getName());
-        patient.setAddress(patientRequestDTO.getAddress());
-        patient.setDateOfBirth(LocalDate.parse(patientRequestDTO.getDateOfBirth()));
-        patient.setEmail(patientRequestDTO.getEmail());
-
-       Patient updatedPatient =  patientRepository.save(patient);
-        return PatientMapper.toDTO(updatedPatient);
+        patientEventOutbox.record(patient, "PATIENT_DELETED");
+        evictAfterCommit(id);
     }
 
-
-    public void deletePatient(UUID id) {
-        if(!patientRepository.existsById(id)){
-            throw new PatientNotFoundException("Patient with id " + id + " doesn't exist" );
-        }
-        patientRepository.deleteById(id);
+    // evicting before commit would let a concurrent read put the old row straight back
+    private void evictAfterCommit(UUID id) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                patientCache.invalidate(id);
+            }
+        });
     }
 
 
@@ -1,3 +1,6 @@
+-- Schema and seed data as previously applied by data.sql. Databases created that way run this too, so every
+-- statement must skip what already exists
+
 -- Ensure the 'patient' table exists
 CREATE TABLE IF NOT EXISTS patient
 (
@@ -9,6 +12,28 @@ CREATE TABLE IF NOT EXISTS patient
     registered_date DATE                NOT NULL
     );
 
+-- Events waiting to be relayed to Kafka, written in the same transaction as the patient row
+CREATE TABLE IF NOT EXISTS patient_outbox
+(
+    id           UUID PRIMARY KEY,
+    aggregate_id VARCHAR(255)             NOT NULL,
+    event_type   VARCHAR(255)             NOT NULL,
+    payload      BYTEA                    NOT NULL,
+    created_at   TIMESTAMP WITH TIME ZONE NOT NULL
+    );
+CREATE INDEX IF NOT EXISTS idx_patient_outbox_created_at ON patient_outbox (created_at);
+
+-- Billing account outcome per patient, PENDING/FAILED rows are reconciled later
+CREATE TABLE IF NOT EXISTS patient_billing_account
+(
+    patient_id UUID PRIMARY KEY,
+    status     VARCHAR(20)              NOT NULL,
+    account_id VARCHAR(255),
+    last_error VARCHAR(1000),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL
+    );
+CREATE INDEX IF NOT EXISTS idx_patient_billing_account_status ON patient_billing_account (status);
+
 -- Insert well-known UUIDs for specific patients
 INSERT INTO patient (id, name, email, address, date_of_birth, registered_date)
 SELECT '123e4567-e89b-12d3-a456-426614174000',
@@ -0,0 +1,2 @@
+-- Keyset pagination (findPageAfter) and the NDJSON export both walk patients in (registered_date, id) order
+CREATE INDEX IF NOT EXISTS idx_patient_registered_date_id ON patient (registered_date, id);
@@ -0,0 +1,2 @@
+-- How often an UNSENT account was sent again, requeuePending gives up at billing.client.requeue.max-attempts
+ALTER TABLE patient_billing_account ADD COLUMN IF NOT EXISTS attempts INT DEFAULT 0 NOT NULL;
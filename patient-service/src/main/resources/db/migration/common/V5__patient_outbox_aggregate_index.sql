@@ -0,0 +1,2 @@
+-- OutboxRelay looks up the oldest pending event per patient before publishing that patient's events
+CREATE INDEX IF NOT EXISTS idx_patient_outbox_aggregate_id ON patient_outbox (aggregate_id, created_at);
@@ -0,0 +1,4 @@
+-- H2 (local runs, load tests) has no expression indexes, plain column indexes keep the same names
+CREATE INDEX IF NOT EXISTS idx_patient_lower_name ON patient (name, id);
+CREATE INDEX IF NOT EXISTS idx_patient_lower_email ON patient (email);
+CREATE INDEX IF NOT EXISTS idx_patient_date_of_birth ON patient (date_of_birth, id);
@@ -0,0 +1,11 @@
+-- Indexes for GET /patients/search, all criteria are matched case-insensitively on lower(...)
+
+-- name prefix: with the C collation lower(name) LIKE 'abc%' is an index range scan whatever the database
+-- locale, and the same index serves ORDER BY lower(name) COLLATE "C", id so a LIMIT stops early
+CREATE INDEX IF NOT EXISTS idx_patient_lower_name ON patient ((lower(name) COLLATE "C"), id);
+
+-- email lookups, the unique constraint on email is case-sensitive and can't serve lower(email) = ?
+CREATE INDEX IF NOT EXISTS idx_patient_lower_email ON patient (lower(email));
+
+-- date of birth ranges, ordered by (date_of_birth, id)
+CREATE INDEX IF NOT EXISTS idx_patient_date_of_birth ON patient (date_of_birth, id);
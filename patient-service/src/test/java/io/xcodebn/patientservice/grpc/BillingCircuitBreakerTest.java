@@ -0,0 +1,128 @@
+package io.xcodebn.patientservice.grpc;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.xcodebn.patientservice.grpc.BillingCircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BillingCircuitBreakerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // 50% of a 4 call window, at least 4 calls, 2 trial calls when half open
+    private BillingCircuitBreaker breaker(Duration openDuration) {
+        BillingCircuitBreaker breaker = new BillingCircuitBreaker(true, 50, 4, 4, openDuration, 2, meterRegistry);
+        breaker.registerStateGauges();
+        return breaker;
+    }
+
+    @Test
+    void shouldStayClosedBelowMinimumCalls() {
+        BillingCircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        fail(breaker, 3);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void shouldOpenOnceFailureRateReachesThreshold() {
+        BillingCircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        succeed(breaker, 2);
+        fail(breaker, 2);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThat(meterRegistry.get("billing.circuit.calls").tag("outcome", "not_permitted").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldForgetCallsThatLeftTheWindow() {
+        BillingCircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        fail(breaker, 1);
+        succeed(breaker, 4);
+        fail(breaker, 1);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void shouldNotCountBusinessErrorsAsFailures() {
+        BillingCircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        for (int i = 0; i < 4; i++) {
+            breaker.onError(Status.INVALID_ARGUMENT.asRuntimeException());
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void shouldCloseAfterHalfOpenTrialsSucceed() {
+        BillingCircuitBreaker breaker = breaker(Duration.ZERO);
+        fail(breaker, 4);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        // only half-open-calls trial calls go out
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+
+        succeed(breaker, 2);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void shouldReopenWhenHalfOpenTrialFails() {
+        BillingCircuitBreaker breaker = breaker(Duration.ZERO);
+        fail(breaker, 4);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        fail(breaker, 1);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void shouldReportCurrentStateGauge() {
+        BillingCircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        fail(breaker, 4);
+
+        assertThat(meterRegistry.get("billing.circuit.state").tag("state", "open").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("billing.circuit.state").tag("state", "closed").gauge().value()).isEqualTo(0);
+        assertThat(meterRegistry.get("billing.circuit.state").tag("state", "half_open").gauge().value()).isEqualTo(0);
+    }
+
+    @Test
+    void shouldPermitEverythingWhenDisabled() {
+        BillingCircuitBreaker breaker = new BillingCircuitBreaker(false, 50, 4, 4, Duration.ofMinutes(1), 2, meterRegistry);
+
+        fail(breaker, 10);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    private static void succeed(BillingCircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.onSuccess();
+        }
+    }
+
+    private static void fail(BillingCircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.onError(Status.UNAVAILABLE.asRuntimeException());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package io.xcodebn.patientservice.kafka;
+
+import io.xcodebn.patientservice.model.PatientOutboxEvent;
+import io.xcodebn.patientservice.repository.PatientOutboxRepository;
+import io.xcodebn.patientservice.repository.PatientOutboxRepository.AggregateHead;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final PatientOutboxRepository repository = mock(PatientOutboxRepository.class);
+    private final KafkaProducer kafkaProducer = mock(KafkaProducer.class);
+    private final OutboxRelay relay = new OutboxRelay(repository, kafkaProducer, 100, Duration.ofSeconds(1));
+    // payloads in the order they were handed to the producer
+    private final List<String> sent = new ArrayList<>();
+
+    @Test
+    void shouldSendPatientsEventsOneAfterTheOther() {
+        PatientOutboxEvent x1 = event("x", "x1", 0);
+        PatientOutboxEvent y1 = event("y", "y1", 1);
+        PatientOutboxEvent x2 = event("x", "x2", 2);
+        claim(List.of(x1, y1, x2), List.of());
+        Map<String, CompletableFuture<?>> acks = new HashMap<>();
+        when(kafkaProducer.sendEvent(anyString(), any())).thenAnswer(invocation -> {
+            String payload = payload(invocation.getArgument(1));
+            if ("x2".equals(payload)) {
+                assertThat(acks.get("x1")).isDone();
+            }
+            sent.add(payload);
+            // acked a little later, as by the producer's network thread
+            CompletableFuture<?> ack = CompletableFuture.runAsync(() -> { },
+                    CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+            acks.put(payload, ack);
+            return ack;
+        });
+
+        relay.relay();
+
+        assertThat(sent).containsExactly("x1", "y1", "x2");
+        verify(repository).deleteAllInBatch(List.of(x1, y1, x2));
+    }
+
+    @Test
+    void shouldHoldBackLaterEventsOfPatientWhoseEventFailed() {
+        PatientOutboxEvent x1 = event("x", "x1", 0);
+        PatientOutboxEvent y1 = event("y", "y1", 1);
+        PatientOutboxEvent x2 = event("x", "x2", 2);
+        claim(List.of(x1, y1, x2), List.of());
+        when(kafkaProducer.sendEvent(anyString(), any())).thenAnswer(invocation -> {
+            String payload = payload(invocation.getArgument(1));
+            sent.add(payload);
+            return "x1".equals(payload)
+                    ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                    : CompletableFuture.completedFuture(null);
+        });
+
+        relay.relay();
+
+        assertThat(sent).containsExactly("x1", "y1");
+        verify(repository).deleteAllInBatch(List.of(y1));
+    }
+
+    @Test
+    void shouldNotOvertakeOlderEventClaimedElsewhere() {
+        // x1 is locked by another replica, so this run only got x2
+        PatientOutboxEvent x2 = event("x", "x2", 2);
+        PatientOutboxEvent y1 = event("y", "y1", 1);
+        claim(List.of(y1, x2), List.of(head("x", 0)));
+        when(kafkaProducer.sendEvent(anyString(), any())).thenAnswer(invocation -> {
+            sent.add(payload(invocation.getArgument(1)));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        relay.relay();
+
+        assertThat(sent).containsExactly("y1");
+        verify(repository).deleteAllInBatch(List.of(y1));
+    }
+
+    @Test
+    void shouldSendEventsOlderThanUnclaimedOnes() {
+        PatientOutboxEvent x1 = event("x", "x1", 0);
+        PatientOutboxEvent x3 = event("x", "x3", 5);
+        // x2 sits between them, held by another replica
+        claim(List.of(x1, x3), List.of(head("x", 3)));
+        when(kafkaProducer.sendEvent(anyString(), any())).thenAnswer(invocation -> {
+            sent.add(payload(invocation.getArgument(1)));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        relay.relay();
+
+        assertThat(sent).containsExactly("x1");
+        verify(repository).deleteAllInBatch(List.of(x1));
+    }
+
+    private void claim(List<PatientOutboxEvent> batch, List<AggregateHead> outside) {
+        when(repository.findAllByOrderByCreatedAtAsc(any(Limit.class))).thenReturn(batch);
+        when(repository.findOldestOutside(anyCollection(), anyCollection())).thenReturn(outside);
+    }
+
+    private static PatientOutboxEvent event(String aggregateId, String payload, long second) {
+        PatientOutboxEvent event = new PatientOutboxEvent(aggregateId, "PATIENT_UPDATED", payload.getBytes(StandardCharsets.UTF_8));
+        event.setId(UUID.randomUUID());
+        event.setCreatedAt(T0.plusSeconds(second));
+        return event;
+    }
+
+    private static AggregateHead head(String aggregateId, long second) {
+        return new AggregateHead() {
+            @Override
+            public String getAggregateId() {
+                return aggregateId;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return T0.plusSeconds(second);
+            }
+        };
+    }
+
+    private static String payload(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,87 @@
+package io.xcodebn.patientservice.service;
+
+import io.xcodebn.patientservice.dto.PatientRequestDTO;
+import io.xcodebn.patientservice.exception.InvalidImportFileException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PatientCsvParserTest {
+
+    private static final String HEADER = "name,email,address,dateOfBirth,registeredDate";
+
+    @Test
+    void shouldParseRowInHeaderOrder() {
+        PatientRequestDTO patient = PatientCsvParser.fromHeader(HEADER)
+                .parse("Jane Doe,jane@example.com,1 Main St,1990-05-17,2024-01-02");
+
+        assertThat(patient.getName()).isEqualTo("Jane Doe");
+        assertThat(patient.getEmail()).isEqualTo("jane@example.com");
+        assertThat(patient.getAddress()).isEqualTo("1 Main St");
+        assertThat(patient.getDateOfBirth()).isEqualTo("1990-05-17");
+        assertThat(patient.getRegisteredDate()).isEqualTo("2024-01-02");
+    }
+
+    @Test
+    void shouldMatchReorderedColumnsByName() {
+        PatientRequestDTO patient = PatientCsvParser.fromHeader("Email,registeredDate,NAME,dateOfBirth,address")
+                .parse("jane@example.com,2024-01-02,Jane Doe,1990-05-17,1 Main St");
+
+        assertThat(patient.getName()).isEqualTo("Jane Doe");
+        assertThat(patient.getEmail()).isEqualTo("jane@example.com");
+        assertThat(patient.getAddress()).isEqualTo("1 Main St");
+    }
+
+    @Test
+    void shouldIgnoreByteOrderMark() {
+        PatientRequestDTO patient = PatientCsvParser.fromHeader("\uFEFF" + HEADER)
+                .parse("Jane Doe,jane@example.com,1 Main St,1990-05-17,2024-01-02");
+
+        assertThat(patient.getName()).isEqualTo("Jane Doe");
+    }
+
+    @Test
+    void shouldKeepCommasAndQuotesInsideQuotedFields() {
+        PatientRequestDTO patient = PatientCsvParser.fromHeader(HEADER)
+                .parse("\"Doe, Jane \"\"JD\"\"\",jane@example.com,\"1 Main St, Springfield\",1990-05-17,2024-01-02");
+
+        assertThat(patient.getName()).isEqualTo("Doe, Jane \"JD\"");
+        assertThat(patient.getAddress()).isEqualTo("1 Main St, Springfield");
+    }
+
+    @Test
+    void shouldTrimUnquotedWhitespace() {
+        assertThat(PatientCsvParser.split(" a , b ,c")).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void shouldRejectUnknownColumn() {
+        assertThatThrownBy(() -> PatientCsvParser.fromHeader(HEADER + ",phone"))
+                .isInstanceOf(InvalidImportFileException.class)
+                .hasMessageContaining("phone");
+    }
+
+    @Test
+    void shouldRejectDuplicateColumn() {
+        assertThatThrownBy(() -> PatientCsvParser.fromHeader(HEADER + ",email"))
+                .isInstanceOf(InvalidImportFileException.class)
+                .hasMessageContaining("email appears twice");
+    }
+
+    @Test
+    void shouldRejectMissingColumn() {
+        assertThatThrownBy(() -> PatientCsvParser.fromHeader("name,email,address,dateOfBirth"))
+                .isInstanceOf(InvalidImportFileException.class)
+                .hasMessageContaining("registeredDate");
+    }
+
+    @Test
+    void shouldRejectRowWithWrongColumnCount() {
+        PatientCsvParser parser = PatientCsvParser.fromHeader(HEADER);
+
+        assertThatThrownBy(() -> parser.parse("Jane Doe,jane@example.com,1 Main St,1990-05-17"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("expected 5 columns, found 4");
+    }
+}
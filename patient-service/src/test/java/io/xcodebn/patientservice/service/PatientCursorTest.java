@@ -0,0 +1,54 @@
+package io.xcodebn.patientservice.service;
+
+import io.xcodebn.patientservice.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PatientCursorTest {
+
+    @Test
+    void shouldDecodeWhatItEncoded() {
+        PatientCursor cursor = new PatientCursor(LocalDate.of(2024, 2, 29), UUID.randomUUID());
+
+        assertThat(PatientCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void shouldEncodeUrlSafeWithoutPadding() {
+        String encoded = new PatientCursor(LocalDate.of(2024, 1, 1), UUID.randomUUID()).encode();
+
+        assertThat(encoded).doesNotContain("=", "+", "/");
+    }
+
+    @Test
+    void shouldRejectCursorThatIsNotBase64() {
+        assertThatThrownBy(() -> PatientCursor.decode("not a cursor!"))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessageContaining("not a cursor!");
+    }
+
+    @Test
+    void shouldRejectCursorWithoutSeparator() {
+        assertThatThrownBy(() -> PatientCursor.decode(base64("2024-01-01")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void shouldRejectCursorWithMalformedFields() {
+        assertThatThrownBy(() -> PatientCursor.decode(base64("2024-13-01|" + UUID.randomUUID())))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> PatientCursor.decode(base64("2024-01-01|not-a-uuid")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static String base64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
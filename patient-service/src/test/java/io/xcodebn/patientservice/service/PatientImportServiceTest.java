@@ -0,0 +1,117 @@
+package io.xcodebn.patientservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.xcodebn.patientservice.dto.BulkImportReportDTO;
+import io.xcodebn.patientservice.dto.BulkImportRowDTO;
+import io.xcodebn.patientservice.kafka.PatientEventOutbox;
+import io.xcodebn.patientservice.model.Patient;
+import io.xcodebn.patientservice.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PatientImportServiceTest {
+
+    private static final String HEADER = "name,email,address,dateOfBirth,registeredDate";
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final PatientImportService importService = new PatientImportService(
+            patientRepository,
+            mock(PatientEventOutbox.class),
+            mock(BillingAccountService.class),
+            transactionTemplate,
+            mock(EntityManager.class),
+            validator,
+            new ObjectMapper(),
+            10);
+
+    // emails committed so far, including one inserted concurrently
+    private final Set<String> stored = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(patientRepository.findExistingEmails(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            return emails.stream().filter(stored::contains).collect(Collectors.toSet());
+        });
+    }
+
+    @Test
+    void shouldRejectOnlyTheRowTakenByConcurrentInsert() throws IOException {
+        when(patientRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Patient> patients = invocation.getArgument(0);
+            // another import committed b@example.com after this chunk looked its emails up
+            if (patients.stream().anyMatch(patient -> patient.getEmail().equals("b@example.com"))) {
+                stored.add("b@example.com");
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            patients.forEach(patient -> stored.add(patient.getEmail()));
+            return patients;
+        });
+
+        BulkImportReportDTO report = importService.importPatients(csv(
+                "A,a@example.com,1 Main St,1990-01-01,2024-01-01",
+                "B,b@example.com,2 Main St,1990-01-01,2024-01-01",
+                "C,c@example.com,3 Main St,1990-01-01,2024-01-01"), PatientImportService.Format.CSV);
+
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getRows()).extracting(BulkImportRowDTO::getEmail, BulkImportRowDTO::getStatus)
+                .containsExactly(tuple("b@example.com", "DUPLICATE"));
+        assertThat(stored).containsExactlyInAnyOrder("a@example.com", "b@example.com", "c@example.com");
+    }
+
+    @Test
+    void shouldFailOnlyTheRowThatCannotBeInserted() throws IOException {
+        when(patientRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Patient> patients = invocation.getArgument(0);
+            if (patients.stream().anyMatch(patient -> patient.getEmail().equals("b@example.com"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            patients.forEach(patient -> stored.add(patient.getEmail()));
+            return patients;
+        });
+
+        BulkImportReportDTO report = importService.importPatients(csv(
+                "A,a@example.com,1 Main St,1990-01-01,2024-01-01",
+                "B,b@example.com,2 Main St,1990-01-01,2024-01-01",
+                "C,c@example.com,3 Main St,1990-01-01,2024-01-01"), PatientImportService.Format.CSV);
+
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getRows()).singleElement().satisfies(row -> {
+            assertThat(row.getLine()).isEqualTo(3);
+            assertThat(row.getStatus()).isEqualTo("FAILED");
+            assertThat(row.getMessage()).isEqualTo("value too long");
+        });
+    }
+
+    private static ByteArrayInputStream csv(String... rows) {
+        String body = HEADER + "\n" + String.join("\n", rows) + "\n";
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}